@@ -38,6 +38,9 @@
 //        .\gradlew buildHealth
 //        .\gradlew reason --id com.fasterxml.jackson.core:jackson-annotations:...
 //
+//  3a) Benchmarks mit JMH (Ergebnisse als JSON in build/reports/jmh)
+//        .\gradlew jmh [-Pjmh=SpecificationBuilder]
+//
 //  4) Sicherheitsueberpruefung durch OWASP Dependency Check und Snyk
 //        .\gradlew dependencyCheckAnalyze --info
 //        .\gradlew snyk-test
@@ -128,6 +131,10 @@ plugins {
     // https://docs.sonarqube.org/latest/analyzing-source-code/scanners/sonarscanner-for-gradle
     id("org.sonarqube") version libs.versions.sonarqube.get()
 
+    // https://github.com/melix/jmh-gradle-plugin
+    // Benchmarks mit JMH in src/jmh/java
+    id("me.champeau.jmh") version libs.versions.jmhPlugin.get()
+
     // https://github.com/radarsh/gradle-test-logger-plugin
     id("com.adarshr.test-logger") version libs.versions.testLogger.get()
 
@@ -275,10 +282,10 @@ dependencies {
     implementation("org.springframework.boot:spring-boot-starter")
 
     // spring-boot-starter-hateoas enthaelt spring-boot-starter-web und dieses enthaelt spring-boot-starter-tomcat
-    implementation("org.springframework.boot:spring-boot-starter-tomcat") {
-        exclude(group = "org.apache.tomcat.embed", module = "tomcat-embed-websocket")
-    }
+    implementation("org.springframework.boot:spring-boot-starter-tomcat")
     implementation("org.springframework.boot:spring-boot-starter-web")
+    // GraphQL-Subscriptions ueber WebSocket
+    implementation("org.springframework.boot:spring-boot-starter-websocket")
     // HttpGraphQlClient benoetigt WebClient mit Project Reactor
     implementation("org.springframework.boot:spring-boot-starter-webflux")
     implementation("org.springframework.boot:spring-boot-starter-json")
@@ -286,6 +293,11 @@ dependencies {
     implementation("org.springframework.boot:spring-boot-starter-hateoas")
     implementation("org.springframework.boot:spring-boot-starter-validation")
     implementation("org.springframework.boot:spring-boot-starter-data-jpa")
+    // 2nd-Level-Cache von Hibernate ueber JCache mit Caffeine als Provider
+    implementation("org.hibernate.orm:hibernate-jcache")
+    runtimeOnly("com.github.ben-manes.caffeine:jcache")
+    // Statistiken von Hibernate (einschl. 2nd-Level-Cache) als Metriken fuer Actuator bzw. Prometheus
+    implementation("org.hibernate.orm:hibernate-micrometer")
     // implementation(libs.crac)
 
     runtimeOnly("org.postgresql:postgresql")
@@ -315,6 +327,8 @@ dependencies {
     implementation("org.springframework.security:spring-security-crypto")
     implementation("org.springframework.boot:spring-boot-starter-mail")
     implementation("org.springframework.boot:spring-boot-starter-actuator")
+    // Aspekte fuer die Observation der Service-Methoden
+    implementation("org.springframework.boot:spring-boot-starter-aop")
 
     // Tracing durch Micrometer und Visualisierung durch Zipkin
     if (useTracing) {
@@ -324,6 +338,8 @@ dependencies {
 
     // Metriken durch Micrometer und Visualisierung durch Prometheus/Grafana
     implementation("io.micrometer:micrometer-registry-prometheus")
+    // Observation, Trace und MDC an eigene Executoren uebergeben, auch ohne Tracing
+    implementation("io.micrometer:context-propagation")
 
     // https://docs.spring.io/spring-framework/reference/6.1/integration/checkpoint-restore.html
     // https://www.azul.com/blog/superfast-application-startup-java-on-crac
@@ -372,6 +388,10 @@ dependencies {
     // mock() fuer record
     testImplementation("org.mockito:mockito-inline:${libs.versions.mockitoInline.get()}")
 
+    // MockHttpServletRequest und H2 fuer Benchmarks
+    jmhImplementation("org.springframework:spring-test")
+    jmhRuntimeOnly("com.h2database:h2")
+
     // https://github.com/tbroyer/gradle-errorprone-plugin
     // https://docs.gradle.org/8.4-rc-1/release-notes.html#easier-to-create-role-focused-configurations
     errorprone("com.google.errorprone:error_prone_core:${libs.versions.errorprone.get()}")
@@ -382,6 +402,8 @@ dependencies {
         //implementation("org.springframework.hateoas:spring-hateoas:${libs.versions.springHateoas.get()}")
         //implementation("jakarta.persistence:jakarta.persistence-api:${libs.versions.jakartaPersistence.get()}")
         implementation("org.hibernate.orm:hibernate-core:${libs.versions.hibernate.get()}")
+        implementation("org.hibernate.orm:hibernate-jcache:${libs.versions.hibernate.get()}")
+        implementation("org.hibernate.orm:hibernate-micrometer:${libs.versions.hibernate.get()}")
         runtimeOnly("org.postgresql:postgresql:${libs.versions.postgres.get()}")
         runtimeOnly("com.mysql:mysql-connector-j:${libs.versions.mysql.get()}")
         //runtimeOnly("com.oracle.database.jdbc:ojdbc11:${libs.versions.oracle.get()}")
@@ -467,6 +489,44 @@ tasks.named<JavaCompile>("compileTestJava") {
     }
 }
 
+// https://github.com/melix/jmh-gradle-plugin#configuration-options
+// Micro-Benchmarks (z.B. SpecificationBuilder, ZuliefererMapper) und Macro-Benchmarks gegen H2 mit den Flyway-Skripten
+jmh {
+    jmhVersion = libs.versions.jmh.get()
+    val filter = project.properties["jmh"]
+    if (filter != null) {
+        includes = listOf(filter.toString())
+    }
+    fork = 1
+    warmupIterations = 3
+    iterations = 5
+    // JSON-Dateien je Version, um die Ergebnisse verschiedener Releases vergleichen zu koennen
+    resultFormat = "JSON"
+    resultsFile = layout.buildDirectory.file("reports/jmh/results-${project.version}.json")
+    if (enablePreview != null) {
+        jvmArgsAppend = listOf(enablePreview)
+    }
+}
+
+tasks.named<JavaCompile>("compileJmhJava") {
+    with(options) {
+        // die uebersetzten Klassen aus src/main/java benoetigen "Preview Features"
+        if (enablePreview != null) {
+            compilerArgs.add(enablePreview)
+        }
+        errorprone.isEnabled = false
+    }
+}
+
+tasks.named<JavaCompile>("jmhCompileGeneratedClasses") {
+    with(options) {
+        if (enablePreview != null) {
+            compilerArgs.add(enablePreview)
+        }
+        errorprone.isEnabled = false
+    }
+}
+
 tasks.named("bootJar", org.springframework.boot.gradle.tasks.bundling.BootJar::class.java) {
     // in src/main/resources/
     exclude("private-key.pem", "certificate.cer")
@@ -0,0 +1,39 @@
+package com.acme.zulieferer.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Micro-Benchmark für das Erstellen einer Specification aus Query-Parametern.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@SuppressWarnings("unused")
+public class SpecificationBuilderBenchmark {
+    private final SpecificationBuilder specificationBuilder = new SpecificationBuilder();
+
+    private final Map<String, List<String>> name = Map.of("name", List.of("a"));
+
+    private final Map<String, List<String>> nameEmail = Map.of(
+        "name", List.of("a"),
+        "email", List.of("acme.cn")
+    );
+
+    @Benchmark
+    public Object buildName() {
+        return specificationBuilder.build(name);
+    }
+
+    @Benchmark
+    public Object buildNameEmail() {
+        return specificationBuilder.build(nameEmail);
+    }
+}
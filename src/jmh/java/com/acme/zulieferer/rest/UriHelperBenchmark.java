@@ -0,0 +1,52 @@
+package com.acme.zulieferer.rest;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+/**
+ * Micro-Benchmark für das Ermitteln der Basis-URI, mit und ohne Forwarding durch ein API-Gateway.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@SuppressWarnings("unused")
+public class UriHelperBenchmark {
+    private final UriHelper uriHelper = new UriHelper();
+
+    private final MockHttpServletRequest request = request();
+
+    private final MockHttpServletRequest requestForwarded = requestForwarded();
+
+    @Benchmark
+    public URI baseUri() {
+        return uriHelper.getBaseUri(request);
+    }
+
+    @Benchmark
+    public URI baseUriForwarded() {
+        return uriHelper.getBaseUri(requestForwarded);
+    }
+
+    private static MockHttpServletRequest request() {
+        final var request = new MockHttpServletRequest("GET", "/rest/00000000-0000-0000-0000-000000000001");
+        request.setScheme("https");
+        request.setServerName("localhost");
+        request.setServerPort(8080);
+        return request;
+    }
+
+    private static MockHttpServletRequest requestForwarded() {
+        final var request = request();
+        request.addHeader("X-Forwarded-Proto", "https");
+        request.addHeader("x-forwarded-host", "acme.com");
+        request.addHeader("x-forwarded-prefix", "/zulieferer");
+        return request;
+    }
+}
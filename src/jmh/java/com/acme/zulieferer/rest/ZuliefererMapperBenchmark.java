@@ -0,0 +1,36 @@
+package com.acme.zulieferer.rest;
+
+import com.acme.zulieferer.entity.Geschaeftsfuehrer;
+import com.acme.zulieferer.entity.Lieferung;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Micro-Benchmark für das Abbilden eines DTO auf eine Entity durch MapStruct.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@SuppressWarnings("unused")
+public class ZuliefererMapperBenchmark {
+    private final ZuliefererMapper mapper = Mappers.getMapper(ZuliefererMapper.class);
+
+    private final ZuliefererDTO dto = new ZuliefererDTO(
+        "Paprikafarm",
+        "paprikafarm@acme.cn",
+        List.of(new Lieferung("Rotepaprika"), new Lieferung("Gruenepaprika")),
+        Geschaeftsfuehrer.builder().name("Peter").email("peter@acme.cn").gehalt(200_000).build()
+    );
+
+    @Benchmark
+    public Object toZulieferer() {
+        return mapper.toZulieferer(dto);
+    }
+}
@@ -0,0 +1,72 @@
+package com.acme.zulieferer.rest;
+
+import com.acme.zulieferer.entity.Geschaeftsfuehrer;
+import com.acme.zulieferer.entity.Lieferung;
+import com.acme.zulieferer.entity.Zulieferer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.LinkRelation;
+import org.springframework.hateoas.mediatype.MessageResolver;
+import org.springframework.hateoas.mediatype.hal.CurieProvider;
+import org.springframework.hateoas.mediatype.hal.Jackson2HalModule;
+import org.springframework.hateoas.server.core.AnnotationLinkRelationProvider;
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
+import static java.lang.StringTemplate.STR;
+
+/**
+ * Micro-Benchmark für das Erstellen eines {@link ZuliefererModel} mit Links und die Serialisierung als HAL.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@SuppressWarnings("unused")
+public class ZuliefererModelBenchmark {
+    private static final String BASE_URI = "https://localhost:8080/rest";
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .registerModule(new Jackson2HalModule())
+        .setHandlerInstantiator(new Jackson2HalModule.HalHandlerInstantiator(
+            new AnnotationLinkRelationProvider(),
+            CurieProvider.NONE,
+            MessageResolver.DEFAULTS_ONLY
+        ))
+        .setSerializationInclusion(NON_NULL);
+
+    private final Zulieferer zulieferer = Zulieferer.builder()
+        .id(UUID.fromString("00000000-0000-0000-0000-000000000001"))
+        .version(0)
+        .name("Paprikafarm")
+        .email("paprikafarm@acme.cn")
+        .geschaeftsfuehrer(Geschaeftsfuehrer.builder().name("Peter").email("peter@acme.cn").gehalt(200_000).build())
+        .lieferungen(List.of(new Lieferung("Rotepaprika"), new Lieferung("Gruenepaprika")))
+        .build();
+
+    @Benchmark
+    public ZuliefererModel model() {
+        final var model = new ZuliefererModel(zulieferer);
+        final var idUri = STR."\{BASE_URI}/\{zulieferer.getId()}";
+        model.add(
+            Link.of(idUri),
+            Link.of(BASE_URI, LinkRelation.of("list")),
+            Link.of(BASE_URI, LinkRelation.of("add")),
+            Link.of(idUri, LinkRelation.of("update")),
+            Link.of(idUri, LinkRelation.of("remove"))
+        );
+        return model;
+    }
+
+    @Benchmark
+    public byte[] modelHal() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(model());
+    }
+}
@@ -0,0 +1,94 @@
+package com.acme.zulieferer.service;
+
+import com.acme.zulieferer.Application;
+import com.acme.zulieferer.entity.Geschaeftsfuehrer;
+import com.acme.zulieferer.entity.Lieferung;
+import com.acme.zulieferer.entity.Zulieferer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.ScrollPosition;
+import static java.lang.StringTemplate.STR;
+
+/**
+ * Macro-Benchmark für die Anwendungslogik mit einer H2-Datenbank, die durch die Flyway-Skripte in
+ * `db/migration/h2` angelegt und befüllt wird.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@SuppressWarnings("unused")
+public class ZuliefererServiceBenchmark {
+    private final AtomicLong nr = new AtomicLong();
+
+    private ConfigurableApplicationContext ctx;
+
+    private ZuliefererReadService readService;
+
+    private ZuliefererWriteService writeService;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ctx = new SpringApplicationBuilder(Application.class)
+            .properties(
+                "spring.datasource.url=jdbc:h2:mem:jmh;DB_CLOSE_DELAY=-1",
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "spring.jpa.properties.hibernate.generate_statistics=false",
+                "spring.main.lazy-initialization=false",
+                "server.port=0",
+                "server.ssl.enabled=false",
+                "server.http2.enabled=false",
+                "management.tracing.enabled=false",
+                "logging.level.root=warn"
+            )
+            .run();
+        readService = ctx.getBean(ZuliefererReadService.class);
+        writeService = ctx.getBean(ZuliefererWriteService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    public Object findAll() {
+        return readService.find(Map.of(), ScrollPosition.keyset(), ZuliefererReadService.DEFAULT_PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Object findByName() {
+        return readService.find(
+            Map.of("name", List.of("a")),
+            ScrollPosition.keyset(),
+            ZuliefererReadService.DEFAULT_PAGE_SIZE
+        );
+    }
+
+    @Benchmark
+    public Object create() {
+        final var n = nr.incrementAndGet();
+        final var zulieferer = Zulieferer.builder()
+            .name("Benchmark")
+            .email(STR."jmh\{n}@acme.de")
+            .username(STR."jmh\{n}")
+            .geschaeftsfuehrer(Geschaeftsfuehrer.builder().name("Jmh").email(STR."gf\{n}@acme.de").gehalt(1).build())
+            .lieferungen(new ArrayList<>(List.of(new Lieferung("Gold"))))
+            .build();
+        return writeService.create(zulieferer);
+    }
+}
@@ -0,0 +1,150 @@
+package com.acme.zulieferer;
+
+import com.acme.zulieferer.repository.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.AnyNestedCondition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import static java.lang.StringTemplate.STR;
+
+/**
+ * Konfiguration für getrennte Pools zum Lesen und Schreiben. Wenn mindestens ein Replikat unter
+ * `app.datasource.replicas` konfiguriert oder `app.datasource.read-pool.enabled` gesetzt ist, werden lesende
+ * Transaktionen über {@link ReplicaRoutingDataSource} an eigene Pools geleitet; sonst bleibt es bei der DataSource
+ * von Spring Boot.
+ * <p>
+ * Der Pool zum Schreiben wird über `spring.datasource.hikari` konfiguriert, die Pools zum Lesen übernehmen diese
+ * Konfiguration und überschreiben sie mit `app.datasource.read-pool`, z.B. `maximum-pool-size`. Ohne Replikate gibt
+ * es genau einen Pool zum Lesen für die primäre Datenbank, damit lesende Requests die schreibenden nicht aushungern.
+ * Alle Pools liefern die Metriken `hikaricp.*` mit dem Tag `pool`.
+ */
+interface DataSourceConfig {
+    /**
+     * Property für die URL des ersten Replikats als Bedingung für die Beans.
+     */
+    String REPLICA_URL = "app.datasource.replicas[0].url";
+
+    /**
+     * Property, um ohne Replikate einen eigenen Pool zum Lesen zu verwenden.
+     */
+    String READ_POOL_ENABLED = "app.datasource.read-pool.enabled";
+
+    /**
+     * Bedingung für die Beans: mindestens ein Replikat oder ein eigener Pool zum Lesen.
+     */
+    class ReadPoolCondition extends AnyNestedCondition {
+        ReadPoolCondition() {
+            super(ConfigurationPhase.REGISTER_BEAN);
+        }
+
+        @ConditionalOnProperty(REPLICA_URL)
+        static class Replikate {
+        }
+
+        @ConditionalOnProperty(name = READ_POOL_ENABLED, havingValue = "true")
+        static class ReadPool {
+        }
+    }
+
+    /**
+     * Verbindungsdaten für ein Replikat. Ohne Benutzername und Passwort werden diejenigen der primären Datenbank
+     * verwendet.
+     *
+     * @param url JDBC-URL des Replikats
+     * @param username Benutzername für das Replikat
+     * @param password Passwort für das Replikat
+     */
+    record Replica(String url, String username, String password) {
+    }
+
+    /**
+     * Bean-Definition für die DataSource mit den Pools zum Schreiben und zum Lesen.
+     *
+     * @param properties Properties aus `spring.datasource`
+     * @param connectionDetails Verbindungsdaten, z.B. durch Docker Compose, falls vorhanden
+     * @param environment Environment, um die Replikate und die Hikari-Konfiguration zu lesen
+     * @param meterRegistry Registry für die Metriken der Pools
+     * @param auswahl Auswahl eines Replikats
+     * @param readYourWrites Dauer, in der ein Client nach einem Schreibzugriff von der primären Datenbank liest
+     * @param schluessel Gemeinsamer Schlüssel aller Instanzen für die Signatur bei read-your-writes
+     * @param healthCheck Intervall für die Prüfung der Replikate
+     * @return DataSource für die Pools zum Schreiben und zum Lesen
+     */
+    @Bean(destroyMethod = "close")
+    @Conditional(ReadPoolCondition.class)
+    default ReplicaRoutingDataSource replicaRoutingDataSource(
+        final DataSourceProperties properties,
+        final ObjectProvider<JdbcConnectionDetails> connectionDetails,
+        final Environment environment,
+        final MeterRegistry meterRegistry,
+        @Value("${app.datasource.auswahl:round-robin}") final ReplicaRoutingDataSource.Auswahl auswahl,
+        @Value("${app.datasource.read-your-writes:5s}") final Duration readYourWrites,
+        @Value("${app.datasource.read-your-writes-schluessel:}") final String schluessel,
+        @Value("${app.datasource.health-check:5s}") final Duration healthCheck
+    ) {
+        final var binder = Binder.get(environment);
+        final var primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        connectionDetails.ifAvailable(details -> {
+            primary.setJdbcUrl(details.getJdbcUrl());
+            primary.setUsername(details.getUsername());
+            primary.setPassword(details.getPassword());
+        });
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        if (primary.getPoolName() == null) {
+            primary.setPoolName("primary");
+        }
+        primary.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+        // ohne Replikate: ein Pool zum Lesen fuer die primaere Datenbank
+        final var replicas = binder.bind("app.datasource.replicas", Bindable.listOf(Replica.class))
+            .orElse(List.of(new Replica(primary.getJdbcUrl(), null, null)));
+        final var replikate = new ArrayList<HikariDataSource>(replicas.size());
+        for (var i = 0; i < replicas.size(); i++) {
+            final var replica = replicas.get(i);
+            // ohne Angabe von jdbcUrl usw. wird der Pool erst bei der ersten Verbindung gestartet
+            final var replikat = new HikariDataSource();
+            primary.copyStateTo(replikat);
+            replikat.setPoolName(STR."\{primary.getPoolName()}-read-\{i}");
+            replikat.setJdbcUrl(replica.url());
+            if (replica.username() != null) {
+                replikat.setUsername(replica.username());
+                replikat.setPassword(replica.password());
+            }
+            replikat.setReadOnly(true);
+            binder.bind("app.datasource.read-pool", Bindable.ofInstance(replikat));
+            replikate.add(replikat);
+        }
+
+        return new ReplicaRoutingDataSource(primary, replikate, auswahl, readYourWrites, schluessel, healthCheck);
+    }
+
+    /**
+     * Bean-Definition für die DataSource, die von JPA und Flyway verwendet wird. Die Verbindung wird erst bei der
+     * ersten SQL-Anweisung geholt, wenn bekannt ist, ob die Transaktion nur lesend ist.
+     *
+     * @param replicaRoutingDataSource DataSource für die primäre Datenbank und die Replikate
+     * @return DataSource, die die Verbindung verzögert holt
+     */
+    @Bean
+    @Primary
+    @Conditional(ReadPoolCondition.class)
+    default DataSource dataSource(final ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
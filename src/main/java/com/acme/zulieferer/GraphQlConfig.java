@@ -0,0 +1,22 @@
+package com.acme.zulieferer;
+
+import com.acme.zulieferer.graphql.PreparsedDocumentCache;
+import org.springframework.boot.autoconfigure.graphql.GraphQlSourceBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Konfiguration für graphql-java: geparste und validierte Dokumente werden im {@link PreparsedDocumentCache}
+ * gespeichert, der auch "Automatic Persisted Queries" unterstützt.
+ */
+interface GraphQlConfig {
+    /**
+     * Den Cache für die Dokumente bei graphql-java registrieren.
+     *
+     * @param documentCache Cache für geparste und validierte Dokumente
+     * @return Customizer für die GraphQlSource von Spring for GraphQL
+     */
+    @Bean
+    default GraphQlSourceBuilderCustomizer preparsedDocumentCustomizer(final PreparsedDocumentCache documentCache) {
+        return builder -> builder.configureGraphQl(graphQl -> graphQl.preparsedDocumentProvider(documentCache));
+    }
+}
@@ -16,19 +16,19 @@
  */
 package com.acme.zulieferer;
 
-import java.util.List;
+import com.acme.zulieferer.security.CachingPasswordEncoder;
+import com.acme.zulieferer.security.LoginUserDetailsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.simple.JdbcClient;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.annotation.web.configurers.HeadersConfigurer.FrameOptionsConfig;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
-import static com.acme.zulieferer.security.Rolle.ACTUATOR;
-import static com.acme.zulieferer.security.Rolle.ADMIN;
-import static com.acme.zulieferer.security.Rolle.ZULIEFERER;
 import static org.springframework.security.config.Customizer.withDefaults;
 import static org.springframework.security.crypto.factory.PasswordEncoderFactories.createDelegatingPasswordEncoder;
 
@@ -61,32 +61,46 @@ interface SecurityConfig {
 
     /**
      * Bean-Definition, um den Verschlüsselungsalgorithmus für Passwörter bereitzustellen. Es wird der
-     * Default-Algorithmus von Spring Security verwendet: bcrypt.
+     * Default-Algorithmus von Spring Security verwendet: bcrypt, für gespeicherte Passwörter mit Präfix z.B.
+     * argon2id. Weil bei HTTP Basic jeder Request das Passwort enthält, werden erfolgreiche Prüfungen kurz gespeichert
+     * und die Prüfungen in einem beschränkten Pool ausgeführt.
      *
+     * @param meterRegistry Registry für die Metriken
+     * @param ttl Dauer, für die eine erfolgreiche Prüfung gespeichert wird
+     * @param groesse Maximale Anzahl gespeicherter Prüfungen
+     * @param threads Anzahl der Threads für die Prüfungen
+     * @param warteschlange Maximale Anzahl wartender Prüfungen
+     * @param timeout Maximale Wartezeit auf eine Prüfung
      * @return Objekt für die Verschlüsselung von Passwörtern.
      */
-    @Bean
-    default PasswordEncoder passwordEncoder() {
-        return createDelegatingPasswordEncoder();
+    @Bean(destroyMethod = "close")
+    default PasswordEncoder passwordEncoder(
+        final MeterRegistry meterRegistry,
+        @Value("${app.login.cache-ttl:60s}") final Duration ttl,
+        @Value("${app.login.cache-groesse:1000}") final int groesse,
+        @Value("${app.login.threads:4}") final int threads,
+        @Value("${app.login.warteschlange:64}") final int warteschlange,
+        @Value("${app.login.timeout:5s}") final Duration timeout
+    ) {
+        return new CachingPasswordEncoder(
+            createDelegatingPasswordEncoder(),
+            meterRegistry,
+            ttl,
+            groesse,
+            threads,
+            warteschlange,
+            timeout
+        );
     }
 
     /**
-     * Bean, um Test-User anzulegen. Dazu gehören jeweils ein Benutzername, ein Passwort und diverse Rollen.
-     * Das wird in Beispiel 2 verbessert werden.
+     * Bean, um die Benutzer mit Benutzername, Passwort und Rollen aus der Tabelle `login` zu lesen.
      *
-     * @param passwordEncoder Injiziertes Objekt zur Passwort-Verschlüsselung
-     * @return Ein Objekt, mit dem diese (Test-) User verwaltet werden, z.B. für die künftige Suche.
+     * @param jdbcClient Injiziertes Objekt für den Zugriff auf die DB
+     * @return Ein Objekt, mit dem die Benutzer gesucht werden.
      */
     @Bean
-    @SuppressWarnings("java:S6437")
-    default UserDetailsService userDetailsService(final PasswordEncoder passwordEncoder) {
-        final var users = List.of(
-            User.withUsername("admin")
-                .password(passwordEncoder.encode("p"))
-                .roles(ADMIN.name(), ZULIEFERER.name(), ACTUATOR.name())
-                .build()
-        );
-
-        return new InMemoryUserDetailsManager(users);
+    default UserDetailsService userDetailsService(final JdbcClient jdbcClient) {
+        return new LoginUserDetailsService(jdbcClient);
     }
 }
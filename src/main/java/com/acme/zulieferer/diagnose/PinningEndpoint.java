@@ -0,0 +1,53 @@
+package com.acme.zulieferer.diagnose;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+import java.util.List;
+
+/**
+ * Actuator-Endpoint `/actuator/pinning` mit den von {@link PinningRecorder} aggregierten Events zu virtuellen
+ * Threads. Mit `DELETE` werden die aggregierten Events verworfen, z.B. vor einem Lasttest.
+ */
+@Component
+@Endpoint(id = "pinning")
+@RequiredArgsConstructor
+class PinningEndpoint {
+    private final PinningRecorder recorder;
+
+    /**
+     * Stand der Aufzeichnung.
+     *
+     * @param aktiv true, falls JFR aufzeichnet
+     * @param carrierThreads Anzahl der Carrier-Threads für virtuelle Threads
+     * @param submitFailed Anzahl der virtuellen Threads, die nicht gestartet werden konnten
+     * @param stacks Aggregierte Events je Stacktrace, absteigend nach der gesamten Dauer
+     */
+    record Pinning(boolean aktiv, int carrierThreads, long submitFailed, List<PinningRecorder.Stack> stacks) {
+    }
+
+    /**
+     * Den aktuellen Stand ermitteln.
+     *
+     * @return Stand der Aufzeichnung
+     */
+    @ReadOperation
+    public Pinning pinning() {
+        return new Pinning(
+            recorder.isAktiv(),
+            PinningRecorder.parallelism(),
+            recorder.getSubmitFailed(),
+            recorder.getStacks()
+        );
+    }
+
+    /**
+     * Die aggregierten Events verwerfen.
+     */
+    @DeleteOperation
+    public void zuruecksetzen() {
+        recorder.zuruecksetzen();
+    }
+}
@@ -0,0 +1,278 @@
+package com.acme.zulieferer.diagnose;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import static java.lang.StringTemplate.STR;
+
+/**
+ * Zeichnet mit Java Flight Recorder im laufenden Prozess die Events `jdk.VirtualThreadPinned` und
+ * `jdk.VirtualThreadSubmitFailed` auf. Ein virtueller Thread ist "pinned", wenn er blockiert, während er seinen
+ * Carrier-Thread nicht freigeben kann, z.B. in einem `synchronized`-Block eines JDBC-Treibers, von Hibernate oder von
+ * Logback. Dann fehlt der Carrier-Thread allen anderen virtuellen Threads.
+ * <p>
+ * Die Events werden nach dem Stacktrace aggregiert und über den Actuator-Endpoint `/actuator/pinning` bereitgestellt.
+ * Als Metriken gibt es den Timer `zulieferer.vthread.pinned` mit dem Tag `quelle`, d.h. der ersten Methode außerhalb
+ * des JDK, und den Zähler `zulieferer.vthread.submit.failed`. Aufgezeichnet wird ab einer Dauer von
+ * `app.pinning.schwelle`; mit `app.pinning.enabled = false` wird nicht aufgezeichnet.
+ */
+@Component
+@Slf4j
+class PinningRecorder {
+    private static final String PINNED = "jdk.VirtualThreadPinned";
+    private static final String SUBMIT_FAILED = "jdk.VirtualThreadSubmitFailed";
+    private static final String PINNED_NAME = "zulieferer.vthread.pinned";
+    private static final String WEITERE = "(weitere)";
+    private static final String UNBEKANNT = "(unbekannt)";
+    private static final List<String> JDK_PACKAGES = List.of("java.", "javax.", "jdk.", "sun.", "com.sun.");
+
+    private final MeterRegistry meterRegistry;
+
+    private final boolean enabled;
+
+    private final Duration schwelle;
+
+    private final int stackTiefe;
+
+    private final int maxStacks;
+
+    private final Map<String, Aggregat> stacks = new ConcurrentHashMap<>();
+
+    private final Map<String, Timer> timer = new ConcurrentHashMap<>();
+
+    private final Counter submitFailed;
+
+    private volatile RecordingStream recording;
+
+    /**
+     * Aggregierte Events zu einem Stacktrace.
+     *
+     * @param stack Die obersten Frames des Stacktrace
+     * @param quelle Erste Methode außerhalb des JDK
+     * @param anzahl Anzahl der Events
+     * @param gesamtMs Gesamte Dauer in Millisekunden
+     * @param maxMs Maximale Dauer in Millisekunden
+     * @param zuletzt Zeitpunkt des letzten Events
+     */
+    public record Stack(
+        List<String> stack,
+        String quelle,
+        long anzahl,
+        double gesamtMs,
+        double maxMs,
+        Instant zuletzt
+    ) {
+    }
+
+    private static final class Aggregat {
+        private final List<String> frames;
+        private final String quelle;
+        private final LongAdder anzahl = new LongAdder();
+        private final LongAdder gesamtNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private volatile Instant zuletzt;
+
+        private Aggregat(final List<String> frames, final String quelle) {
+            this.frames = frames;
+            this.quelle = quelle;
+        }
+
+        private void add(final long nanos, final Instant zeitpunkt) {
+            anzahl.increment();
+            gesamtNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            zuletzt = zeitpunkt;
+        }
+
+        private Stack toStack() {
+            return new Stack(
+                frames,
+                quelle,
+                anzahl.sum(),
+                gesamtNanos.sum() / 1_000_000d,
+                maxNanos.get() / 1_000_000d,
+                zuletzt
+            );
+        }
+    }
+
+    PinningRecorder(
+        final MeterRegistry meterRegistry,
+        @Value("${app.pinning.enabled:true}") final boolean enabled,
+        @Value("${app.pinning.schwelle:20ms}") final Duration schwelle,
+        @Value("${app.pinning.stack-tiefe:12}") final int stackTiefe,
+        @Value("${app.pinning.max-stacks:100}") final int maxStacks
+    ) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.schwelle = schwelle;
+        this.stackTiefe = stackTiefe;
+        this.maxStacks = maxStacks;
+        submitFailed = Counter.builder("zulieferer.vthread.submit.failed")
+            .description("Virtuelle Threads, die nicht an den Scheduler übergeben werden konnten")
+            .register(meterRegistry);
+        Gauge.builder("zulieferer.vthread.carrier.parallelism", PinningRecorder::parallelism)
+            .description("Anzahl der Carrier-Threads für virtuelle Threads")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Die Aufzeichnung starten.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("start: Aufzeichnung deaktiviert");
+            return;
+        }
+        try {
+            final var stream = new RecordingStream();
+            stream.enable(PINNED).withThreshold(schwelle).withStackTrace();
+            stream.enable(SUBMIT_FAILED).withStackTrace();
+            // die Events werden sofort aggregiert, d.h. das Repository von JFR muss sie nicht lange aufbewahren
+            stream.setMaxAge(Duration.ofMinutes(1));
+            stream.onEvent(PINNED, this::pinned);
+            stream.onEvent(SUBMIT_FAILED, this::submitFailed);
+            stream.startAsync();
+            recording = stream;
+            log.info("start: schwelle={}, stackTiefe={}, parallelism={}", schwelle, stackTiefe, parallelism());
+        } catch (final IllegalStateException | SecurityException ex) {
+            // z.B. in einem Native Image ohne JFR
+            log.warn("start: JFR nicht verfuegbar: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Die Aufzeichnung beim Herunterfahren beenden.
+     */
+    @PreDestroy
+    public void stop() {
+        final var stream = recording;
+        if (stream != null) {
+            recording = null;
+            stream.close();
+        }
+    }
+
+    /**
+     * Die aggregierten Events, absteigend sortiert nach der gesamten Dauer.
+     *
+     * @return Aggregierte Events je Stacktrace
+     */
+    public List<Stack> getStacks() {
+        return stacks.values()
+            .stream()
+            .map(Aggregat::toStack)
+            .sorted(Comparator.comparingDouble(Stack::gesamtMs).reversed())
+            .toList();
+    }
+
+    /**
+     * Anzahl der virtuellen Threads, die nicht an den Scheduler übergeben werden konnten.
+     *
+     * @return Anzahl seit dem Start
+     */
+    public long getSubmitFailed() {
+        return (long) submitFailed.count();
+    }
+
+    /**
+     * Ist die Aufzeichnung aktiv?
+     *
+     * @return true, falls JFR aufzeichnet
+     */
+    public boolean isAktiv() {
+        return recording != null;
+    }
+
+    /**
+     * Die aggregierten Events verwerfen, z.B. vor einem Lasttest. Die Metriken bleiben unverändert.
+     */
+    public void zuruecksetzen() {
+        stacks.clear();
+    }
+
+    /**
+     * Anzahl der Carrier-Threads gemäß `jdk.virtualThreadScheduler.parallelism`.
+     *
+     * @return Anzahl der Carrier-Threads
+     */
+    public static int parallelism() {
+        final var parallelism = System.getProperty("jdk.virtualThreadScheduler.parallelism");
+        return parallelism == null ? Runtime.getRuntime().availableProcessors() : Integer.parseInt(parallelism);
+    }
+
+    private void pinned(final RecordedEvent event) {
+        final var frames = frames(event);
+        final var key = String.join("\n", frames);
+        var aggregat = stacks.get(key);
+        if (aggregat == null) {
+            if (stacks.size() >= maxStacks) {
+                aggregat = stacks.computeIfAbsent(WEITERE, k -> new Aggregat(List.of(WEITERE), WEITERE));
+            } else {
+                aggregat = stacks.computeIfAbsent(key, k -> neu(frames));
+            }
+        }
+        final var dauer = event.getDuration();
+        aggregat.add(dauer.toNanos(), event.getEndTime());
+        timer.computeIfAbsent(aggregat.quelle, this::timer).record(dauer);
+    }
+
+    private Aggregat neu(final List<String> frames) {
+        final var quelle = frames.stream()
+            .filter(frame -> JDK_PACKAGES.stream().noneMatch(frame::startsWith))
+            .findFirst()
+            .map(frame -> frame.substring(0, frame.lastIndexOf(':')))
+            .orElse(UNBEKANNT);
+        log.warn("pinned: neuer Stacktrace in {}:\n{}", quelle, String.join("\n", frames));
+        return new Aggregat(frames, quelle);
+    }
+
+    private Timer timer(final String quelle) {
+        return Timer.builder(PINNED_NAME)
+            .description("Dauer, in der ein virtueller Thread seinen Carrier-Thread blockiert")
+            .tag("quelle", quelle)
+            .register(meterRegistry);
+    }
+
+    private void submitFailed(final RecordedEvent event) {
+        submitFailed.increment();
+        log.warn("submitFailed: threadId={}, {}", event.getLong("javaThreadId"), event.getString("exceptionMessage"));
+    }
+
+    private List<String> frames(final RecordedEvent event) {
+        final var stackTrace = event.getStackTrace();
+        if (stackTrace == null) {
+            return List.of(UNBEKANNT);
+        }
+        return stackTrace.getFrames()
+            .stream()
+            .filter(RecordedFrame::isJavaFrame)
+            .limit(stackTiefe)
+            .map(PinningRecorder::frame)
+            .toList();
+    }
+
+    private static String frame(final RecordedFrame frame) {
+        final var method = frame.getMethod();
+        return STR."\{method.getType().getName()}.\{method.getName()}:\{frame.getLineNumber()}";
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Diagnose zur Laufzeit, z.B. für virtuelle Threads.
+ */
+package com.acme.zulieferer.diagnose;
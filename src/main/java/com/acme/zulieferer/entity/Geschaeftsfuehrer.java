@@ -1,5 +1,6 @@
 package com.acme.zulieferer.entity;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
@@ -16,13 +17,18 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
 import java.util.UUID;
 
+import static org.hibernate.annotations.CacheConcurrencyStrategy.READ_WRITE;
+
 /**
  * Daten eines Geschaeftsfuehrers.
  * 1:1-Beziehung
  */
 @Entity
+@Cacheable
+@Cache(usage = READ_WRITE, region = "geschaeftsfuehrer")
 @Table(name = "geschaeftsfuehrer")
 @NoArgsConstructor
 @AllArgsConstructor
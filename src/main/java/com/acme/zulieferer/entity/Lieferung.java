@@ -2,6 +2,7 @@ package com.acme.zulieferer.entity;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
@@ -14,13 +15,18 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
 import java.util.UUID;
 
+import static org.hibernate.annotations.CacheConcurrencyStrategy.READ_WRITE;
+
 /**
  * Daten einer Lieferung.
  * 1:N-Beziehung
  */
 @Entity
+@Cacheable
+@Cache(usage = READ_WRITE, region = "lieferung")
 @Table(name = "lieferung")
 @NoArgsConstructor
 @AllArgsConstructor
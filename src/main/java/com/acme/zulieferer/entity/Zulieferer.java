@@ -1,5 +1,6 @@
 package com.acme.zulieferer.entity;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
@@ -23,6 +24,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -33,11 +35,14 @@ import java.util.UUID;
 import static jakarta.persistence.CascadeType.PERSIST;
 import static jakarta.persistence.CascadeType.REMOVE;
 import static jakarta.persistence.FetchType.LAZY;
+import static org.hibernate.annotations.CacheConcurrencyStrategy.READ_WRITE;
 
 /**
  * Daten eines Kunden.
  */
 @Entity
+@Cacheable
+@Cache(usage = READ_WRITE, region = "zulieferer")
 @Table(name = "zulieferer")
 @NamedEntityGraph(name = Zulieferer.GESCHAEFTSFUEHRER_GRAPH, attributeNodes = @NamedAttributeNode("geschaeftsfuehrer"))
 @NamedEntityGraph(name = Zulieferer.GESCHAEFTSFUEHRER_LIEFERUNG_GRAPH, attributeNodes = {
@@ -127,6 +132,7 @@ public class Zulieferer {
      * @return Die Lieferung.
      */
     @OneToMany(cascade = {PERSIST, REMOVE}, orphanRemoval = true)
+    @Cache(usage = READ_WRITE, region = "zulieferer.lieferungen")
     @JoinColumn(name = "zulieferer_id")
     @OrderColumn(name = "idx", nullable = false)
     @NotNull
@@ -0,0 +1,120 @@
+package com.acme.zulieferer.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.CreationTimestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static jakarta.persistence.EnumType.STRING;
+import static jakarta.persistence.GenerationType.SEQUENCE;
+
+/**
+ * Eine Änderung an einem Zulieferer in der Outbox. Die Zeile wird in derselben Transaktion wie die Änderung
+ * geschrieben; die laufende Nummer für den Änderungs-Feed wird erst beim Veröffentlichen vergeben.
+ */
+@Entity
+@Table(name = "zulieferer_aenderung")
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true, callSuper = false)
+@Getter
+@Setter
+@ToString
+@Builder
+@SuppressWarnings({"JavadocDeclaration", "RequireEmptyLineBeforeBlockTagGroup", "MissingSummary"})
+public class ZuliefererAenderung {
+    /**
+     * Art der Änderung.
+     */
+    public enum Art {
+        /**
+         * Ein Zulieferer wurde neu angelegt.
+         */
+        CREATE,
+
+        /**
+         * Ein Zulieferer wurde aktualisiert.
+         */
+        UPDATE,
+
+        /**
+         * Ein Zulieferer wurde gelöscht.
+         */
+        DELETE
+    }
+
+    // Sequenz mit Inkrement 50, damit Hibernate beim Neuanlegen mehrerer Zulieferer die Inserts buendeln kann
+    @Id
+    @GeneratedValue(strategy = SEQUENCE, generator = "zulieferer_aenderung_id_seq")
+    @SequenceGenerator(
+        name = "zulieferer_aenderung_id_seq",
+        sequenceName = "zulieferer_aenderung_id_seq",
+        allocationSize = 50
+    )
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    /**
+     * Die ID des geänderten Zulieferers.
+     *
+     * @param zuliefererId Die ID des Zulieferers.
+     * @return Die ID des Zulieferers.
+     */
+    private UUID zuliefererId;
+
+    /**
+     * Die Art der Änderung.
+     *
+     * @param art Die Art der Änderung.
+     * @return Die Art der Änderung.
+     */
+    @Enumerated(STRING)
+    private Art art;
+
+    /**
+     * Die Version des Zulieferers nach der Änderung bzw. beim Löschen.
+     *
+     * @param version Die Version.
+     * @return Die Version.
+     */
+    private int version;
+
+    /**
+     * Der Name des Zulieferers nach der Änderung bzw. beim Löschen.
+     *
+     * @param name Der Name.
+     * @return Der Name.
+     */
+    private String name;
+
+    /**
+     * Die Emailadresse des Zulieferers nach der Änderung bzw. beim Löschen.
+     *
+     * @param email Die Emailadresse.
+     * @return Die Emailadresse.
+     */
+    private String email;
+
+    @CreationTimestamp
+    private LocalDateTime erzeugt;
+
+    /**
+     * Die laufende Nummer im Änderungs-Feed oder null, falls die Änderung noch nicht veröffentlicht wurde.
+     *
+     * @param nummer Die laufende Nummer.
+     * @return Die laufende Nummer.
+     */
+    private Long nummer;
+}
@@ -0,0 +1,256 @@
+package com.acme.zulieferer.graphql;
+
+import graphql.ExecutionResult;
+import graphql.analysis.QueryTraverser;
+import graphql.analysis.QueryVisitorFieldEnvironment;
+import graphql.analysis.QueryVisitorStub;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.ExecutionContext;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.schema.GraphQLList;
+import graphql.schema.GraphQLTypeUtil;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import static java.lang.StringTemplate.STR;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Statische Kostenanalyse für GraphQL-Operationen nach dem Parsen und Validieren und vor der Ausführung. Die Kosten
+ * eines Feldes sind sein Gewicht plus die Kosten der Unterfelder multipliziert mit einem Faktor für Listen:
+ * <ul>
+ *     <li>Gewicht: `app.graphql.kosten.gewichte` für `Typ.feld`, sonst 1 für Objekte und 0 für Skalare</li>
+ *     <li>Faktor: das Argument `first` bzw. `last`, sonst `app.graphql.kosten.faktoren` für `Typ.feld`, sonst
+ *     `app.graphql.kosten.listen-faktor` für Listen und 1 für alle anderen Felder</li>
+ * </ul>
+ * Introspection, z.B. durch GraphiQL, kostet nichts. Operationen über `max-kosten` oder `max-tiefe` werden abgelehnt.
+ * Von den Operationen ab `drosselung` werden höchstens `teure-parallel` gleichzeitig ausgeführt; die übrigen warten
+ * bis zu `wartezeit` und werden sonst ebenfalls abgelehnt. Die Kosten je Operation sind die Verteilung
+ * `zulieferer.graphql.kosten` mit dem Tag `operation`, die Ablehnungen zählt `zulieferer.graphql.abgelehnt`.
+ * <p>
+ * Den Namen einer Operation wählt der Client. Damit die Anzahl der Zeitreihen beschränkt bleibt, ist der Tag
+ * `operation` nur für die Namen aus `app.graphql.kosten.operationen` der Name, sonst `anonym` ohne Namen bzw.
+ * `sonstige`. Der tatsächliche Name wird protokolliert.
+ */
+@Component
+@Slf4j
+class KostenInstrumentation extends SimplePerformantInstrumentation {
+    private static final String KOSTEN_NAME = "zulieferer.graphql.kosten";
+    private static final String ABGELEHNT_NAME = "zulieferer.graphql.abgelehnt";
+    private static final String FIRST = "first";
+    private static final String LAST = "last";
+    private static final String INTROSPECTION_PREFIX = "__";
+    private static final String ANONYM = "anonym";
+    private static final String SONSTIGE = "sonstige";
+
+    private final MeterRegistry meterRegistry;
+
+    private final long maxKosten;
+
+    private final int maxTiefe;
+
+    private final int listenFaktor;
+
+    private final long drosselung;
+
+    private final Duration wartezeit;
+
+    private final Map<String, Integer> gewichte;
+
+    private final Map<String, Integer> faktoren;
+
+    private final Set<String> operationen;
+
+    private final Semaphore teure;
+
+    /**
+     * Kosten und Tiefe einer Operation.
+     *
+     * @param kosten Berechnete Kosten
+     * @param tiefe Maximale Verschachtelung der Felder
+     */
+    record Kosten(long kosten, int tiefe) {
+    }
+
+    // Summe der Kosten und maximale Tiefe der bereits besuchten Unterfelder
+    private static final class Summe {
+        private long kosten;
+        private int tiefe;
+
+        private void add(final long kostenFeld, final int tiefeFeld) {
+            kosten = Math.addExact(kosten, kostenFeld);
+            tiefe = Math.max(tiefe, tiefeFeld);
+        }
+    }
+
+    KostenInstrumentation(
+        final MeterRegistry meterRegistry,
+        final Environment environment,
+        @Value("${app.graphql.kosten.max-kosten:1000}") final long maxKosten,
+        @Value("${app.graphql.kosten.max-tiefe:8}") final int maxTiefe,
+        @Value("${app.graphql.kosten.listen-faktor:10}") final int listenFaktor,
+        @Value("${app.graphql.kosten.drosselung:200}") final long drosselung,
+        @Value("${app.graphql.kosten.teure-parallel:2}") final int teureParallel,
+        @Value("${app.graphql.kosten.wartezeit:2s}") final Duration wartezeit
+    ) {
+        this.meterRegistry = meterRegistry;
+        this.maxKosten = maxKosten;
+        this.maxTiefe = maxTiefe;
+        this.listenFaktor = listenFaktor;
+        this.drosselung = drosselung;
+        this.wartezeit = wartezeit;
+        final var binder = Binder.get(environment);
+        final var typ = Bindable.mapOf(String.class, Integer.class);
+        gewichte = binder.bind("app.graphql.kosten.gewichte", typ).orElse(Map.of());
+        faktoren = binder.bind("app.graphql.kosten.faktoren", typ).orElse(Map.of());
+        operationen = binder.bind("app.graphql.kosten.operationen", Bindable.setOf(String.class)).orElse(Set.of());
+        teure = new Semaphore(teureParallel, true);
+        log.info(
+            "KostenInstrumentation: maxKosten={}, maxTiefe={}, drosselung={}, gewichte={}, faktoren={}, operationen={}",
+            maxKosten,
+            maxTiefe,
+            drosselung,
+            gewichte,
+            faktoren,
+            operationen
+        );
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(
+        final InstrumentationExecuteOperationParameters parameters,
+        final InstrumentationState state
+    ) {
+        final var executionContext = parameters.getExecutionContext();
+        final var name = executionContext.getOperationDefinition().getName();
+        final var operation = name == null ? ANONYM : name;
+        final Kosten kosten;
+        try {
+            kosten = berechnen(executionContext);
+        } catch (final ArithmeticException ex) {
+            throw ablehnen("kosten", STR."Die Kosten der Operation \{operation} sind zu hoch");
+        }
+        log.debug("beginExecuteOperation: operation={}, {}", operation, kosten);
+        DistributionSummary.builder(KOSTEN_NAME)
+            .description("Berechnete Kosten je GraphQL-Operation")
+            .tag("operation", tag(name))
+            .register(meterRegistry)
+            .record(kosten.kosten());
+
+        if (kosten.tiefe() > maxTiefe) {
+            throw ablehnen("tiefe", STR."Die Tiefe \{kosten.tiefe()} ist größer als das Maximum \{maxTiefe}");
+        }
+        if (kosten.kosten() > maxKosten) {
+            throw ablehnen("kosten", STR."Die Kosten \{kosten.kosten()} sind größer als das Maximum \{maxKosten}");
+        }
+        if (kosten.kosten() < drosselung) {
+            return super.beginExecuteOperation(parameters, state);
+        }
+
+        boolean erhalten;
+        try {
+            erhalten = teure.tryAcquire(wartezeit.toMillis(), MILLISECONDS);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            erhalten = false;
+        }
+        if (!erhalten) {
+            throw ablehnen("drosselung", STR."Zu viele teure Operationen, erneut versuchen nach \{wartezeit}");
+        }
+        return SimpleInstrumentationContext.whenCompleted((result, ex) -> teure.release());
+    }
+
+    /**
+     * Kosten und Tiefe einer Operation berechnen.
+     *
+     * @param executionContext Kontext mit Schema, Dokument, Operation und Variablen
+     * @return Kosten und Tiefe
+     * @throws ArithmeticException Falls die Kosten größer als `Long.MAX_VALUE` sind
+     */
+    Kosten berechnen(final ExecutionContext executionContext) {
+        final var traverser = QueryTraverser.newQueryTraverser()
+            .schema(executionContext.getGraphQLSchema())
+            .document(executionContext.getDocument())
+            .operationName(executionContext.getOperationDefinition().getName())
+            .coercedVariables(executionContext.getCoercedVariables())
+            .build();
+
+        // Post-Order: die Unterfelder eines Feldes werden vor dem Feld selbst besucht
+        final var summen = new HashMap<QueryVisitorFieldEnvironment, Summe>();
+        final var gesamt = new Summe();
+        traverser.visitPostOrder(new QueryVisitorStub() {
+            @Override
+            public void visitField(final QueryVisitorFieldEnvironment env) {
+                final var unterfelder = summen.remove(env);
+                if (env.isTypeNameIntrospectionField()
+                    || env.getFieldDefinition().getName().startsWith(INTROSPECTION_PREFIX)) {
+                    return;
+                }
+                final var kostenUnterfelder = unterfelder == null ? 0 : unterfelder.kosten;
+                final var tiefeUnterfelder = unterfelder == null ? 0 : unterfelder.tiefe;
+                final var kosten = Math.addExact(gewicht(env), Math.multiplyExact(faktor(env), kostenUnterfelder));
+                final var parent = env.getParentEnvironment();
+                final var summe = parent == null ? gesamt : summen.computeIfAbsent(parent, key -> new Summe());
+                summe.add(kosten, tiefeUnterfelder + 1);
+            }
+        });
+        return new Kosten(gesamt.kosten, gesamt.tiefe);
+    }
+
+    private long gewicht(final QueryVisitorFieldEnvironment env) {
+        final var gewicht = gewichte.get(schluessel(env));
+        if (gewicht != null) {
+            return gewicht;
+        }
+        return GraphQLTypeUtil.isLeaf(GraphQLTypeUtil.unwrapAll(env.getFieldDefinition().getType())) ? 0 : 1;
+    }
+
+    private long faktor(final QueryVisitorFieldEnvironment env) {
+        final var arguments = env.getArguments();
+        if (arguments.get(FIRST) instanceof Integer first) {
+            return Math.max(first, 0);
+        }
+        if (arguments.get(LAST) instanceof Integer last) {
+            return Math.max(last, 0);
+        }
+        final var faktor = faktoren.get(schluessel(env));
+        if (faktor != null) {
+            return faktor;
+        }
+        return GraphQLTypeUtil.unwrapNonNull(env.getFieldDefinition().getType()) instanceof GraphQLList
+            ? listenFaktor
+            : 1;
+    }
+
+    // nur konfigurierte Namen als Tag, damit ein Client keine beliebigen Zeitreihen erzeugen kann
+    private String tag(final String name) {
+        if (name == null) {
+            return ANONYM;
+        }
+        return operationen.contains(name) ? name : SONSTIGE;
+    }
+
+    private static String schluessel(final QueryVisitorFieldEnvironment env) {
+        return STR."\{env.getFieldsContainer().getName()}.\{env.getFieldDefinition().getName()}";
+    }
+
+    private AbortExecutionException ablehnen(final String grund, final String message) {
+        log.warn("ablehnen: {}", message);
+        meterRegistry.counter(ABGELEHNT_NAME, "grund", grund).increment();
+        return new AbortExecutionException(message);
+    }
+}
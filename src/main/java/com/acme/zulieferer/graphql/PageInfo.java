@@ -0,0 +1,12 @@
+package com.acme.zulieferer.graphql;
+
+/**
+ * Informationen zu einer Seite gemäß der Relay-Spezifikation.
+ *
+ * @param hasPreviousPage Gibt es eine vorherige Seite?
+ * @param hasNextPage Gibt es eine nachfolgende Seite?
+ * @param startCursor Cursor der ersten Kante
+ * @param endCursor Cursor der letzten Kante
+ */
+public record PageInfo(boolean hasPreviousPage, boolean hasNextPage, String startCursor, String endCursor) {
+}
@@ -0,0 +1,190 @@
+package com.acme.zulieferer.graphql;
+
+import graphql.ExecutionInput;
+import graphql.GraphQLError;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import static java.lang.StringTemplate.STR;
+import static org.springframework.graphql.execution.ErrorType.BAD_REQUEST;
+
+/**
+ * Cache für geparste und validierte GraphQL-Dokumente mit Unterstützung für "Automatic Persisted Queries" (APQ). Der
+ * Schlüssel ist der SHA-256-Hashwert des Query-Strings, d.h. graphql-java muss eine bereits bekannte Query weder
+ * parsen noch gegen das Schema validieren.
+ * <p>
+ * Bei APQ sendet der Client in `extensions.persistedQuery.sha256Hash` nur den Hashwert ohne Query-String. Ist der
+ * Hashwert unbekannt, gibt es den Fehler `PersistedQueryNotFound` und der Client sendet die Query zusammen mit dem
+ * Hashwert nochmals, so dass sie registriert wird. Die Anzahl der Dokumente ist durch `app.graphql.dokumente`
+ * beschränkt; verdrängt wird das am längsten nicht verwendete Dokument. Treffer und Fehlschläge zählt die Metrik
+ * `zulieferer.graphql.dokumente`, die Trefferquote ist `zulieferer.graphql.dokumente.trefferquote`.
+ */
+@Component
+@Slf4j
+public class PreparsedDocumentCache implements PreparsedDocumentProvider {
+    private static final String METRIC_NAME = "zulieferer.graphql.dokumente";
+    private static final String APQ_NAME = "zulieferer.graphql.apq";
+    private static final String ERGEBNIS = "ergebnis";
+    private static final String PERSISTED_QUERY = "persistedQuery";
+    private static final String SHA256_HASH = "sha256Hash";
+    private static final String CODE = "code";
+
+    // LinkedHashMap in Zugriffsreihenfolge: der erste Eintrag wurde am laengsten nicht verwendet
+    private final LinkedHashMap<String, PreparsedDocumentEntry> dokumente = new LinkedHashMap<>(64, 0.75f, true);
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final int maxDokumente;
+
+    private final Counter treffer;
+
+    private final Counter fehlschlaege;
+
+    private final Counter apqNichtGefunden;
+
+    private final Counter apqUngueltig;
+
+    PreparsedDocumentCache(
+        final MeterRegistry meterRegistry,
+        @Value("${app.graphql.dokumente:500}") final int maxDokumente
+    ) {
+        this.maxDokumente = maxDokumente;
+        treffer = meterRegistry.counter(METRIC_NAME, ERGEBNIS, "treffer");
+        fehlschlaege = meterRegistry.counter(METRIC_NAME, ERGEBNIS, "fehlschlag");
+        apqNichtGefunden = meterRegistry.counter(APQ_NAME, ERGEBNIS, "nicht-gefunden");
+        apqUngueltig = meterRegistry.counter(APQ_NAME, ERGEBNIS, "ungueltig");
+        Gauge.builder(STR."\{METRIC_NAME}.trefferquote", this, PreparsedDocumentCache::getTrefferquote)
+            .description("Anteil der GraphQL-Requests mit bereits geparstem und validiertem Dokument")
+            .register(meterRegistry);
+        log.info("PreparsedDocumentCache: maxDokumente={}", maxDokumente);
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public PreparsedDocumentEntry getDocument(
+        final ExecutionInput executionInput,
+        final Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction
+    ) {
+        final var query = executionInput.getQuery();
+        final var persistedHash = persistedHash(executionInput.getExtensions());
+        // Spring for GraphQL ersetzt eine fehlende Query bei APQ durch einen Marker von graphql-java
+        if (query == null || query.isBlank() || PersistedQuerySupport.PERSISTED_QUERY_MARKER.equals(query)) {
+            if (persistedHash == null) {
+                return fehler("Weder Query noch Hashwert im Request", "PERSISTED_QUERY_MISSING");
+            }
+            final var entry = get(persistedHash);
+            if (entry == null) {
+                log.debug("getDocument: unbekannter Hashwert {}", persistedHash);
+                apqNichtGefunden.increment();
+                return fehler("PersistedQueryNotFound", "PERSISTED_QUERY_NOT_FOUND");
+            }
+            return entry;
+        }
+
+        final var hash = sha256(query);
+        if (persistedHash != null && !persistedHash.equals(hash)) {
+            log.debug("getDocument: Hashwert {} passt nicht zur Query", persistedHash);
+            apqUngueltig.increment();
+            return fehler("PersistedQueryIdInvalid", "PERSISTED_QUERY_ID_INVALID");
+        }
+        final var cached = get(hash);
+        if (cached != null) {
+            return cached;
+        }
+        final var entry = parseAndValidateFunction.apply(executionInput);
+        // fehlerhafte Dokumente nicht speichern, damit ungueltige Queries keine gueltigen verdraengen
+        if (!entry.hasErrors()) {
+            put(hash, entry);
+        }
+        return entry;
+    }
+
+    @Override
+    public CompletableFuture<PreparsedDocumentEntry> getDocumentAsync(
+        final ExecutionInput executionInput,
+        final Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction
+    ) {
+        return CompletableFuture.completedFuture(getDocument(executionInput, parseAndValidateFunction));
+    }
+
+    /**
+     * Anteil der Requests, deren Dokument im Cache gefunden wurde.
+     *
+     * @return Trefferquote zwischen 0 und 1
+     */
+    public double getTrefferquote() {
+        final var anzahlTreffer = treffer.count();
+        final var gesamt = anzahlTreffer + fehlschlaege.count();
+        return gesamt == 0 ? 0 : anzahlTreffer / gesamt;
+    }
+
+    private PreparsedDocumentEntry get(final String hash) {
+        final PreparsedDocumentEntry entry;
+        lock.lock();
+        try {
+            entry = dokumente.get(hash);
+        } finally {
+            lock.unlock();
+        }
+        (entry == null ? fehlschlaege : treffer).increment();
+        return entry;
+    }
+
+    private void put(final String hash, final PreparsedDocumentEntry entry) {
+        lock.lock();
+        try {
+            dokumente.put(hash, entry);
+            final var iterator = dokumente.values().iterator();
+            while (dokumente.size() > maxDokumente && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static String persistedHash(final Map<String, Object> extensions) {
+        if (extensions != null
+            && extensions.get(PERSISTED_QUERY) instanceof Map<?, ?> persistedQuery
+            && persistedQuery.get(SHA256_HASH) instanceof String hash
+            && !hash.isBlank()) {
+            return hash.toLowerCase(Locale.ROOT);
+        }
+        return null;
+    }
+
+    private static PreparsedDocumentEntry fehler(final String message, final String code) {
+        final var error = GraphQLError.newError()
+            .errorType(BAD_REQUEST)
+            .message(message)
+            .extensions(Map.of(CODE, code))
+            .build();
+        return new PreparsedDocumentEntry(error);
+    }
+
+    private static String sha256(final String query) {
+        try {
+            final var digest = MessageDigest.getInstance("SHA-256").digest(query.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (final NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -4,20 +4,39 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-public record Suchkriterien(String name, String email) {
+public record Suchkriterien(
+    String name,
+    String email,
+    String geschaeftsfuehrer,
+    Integer gehaltMin,
+    Integer gehaltMax,
+    String artikel
+) {
         /**
          * Konvertierung in eine Map.
          *
          * @return Das konvertierte Map-Objekt
          */
         Map<String, List<String>> toMap() {
-            final Map<String, List<String>> map = new HashMap<>(2, 1);
+            final Map<String, List<String>> map = new HashMap<>(6, 1);
             if (name != null) {
-                map.put("nachname", List.of(name));
+                map.put("name", List.of(name));
             }
             if (email != null) {
                 map.put("email", List.of(email));
             }
+            if (geschaeftsfuehrer != null) {
+                map.put("geschaeftsfuehrer", List.of(geschaeftsfuehrer));
+            }
+            if (gehaltMin != null) {
+                map.put("gehaltMin", List.of(gehaltMin.toString()));
+            }
+            if (gehaltMax != null) {
+                map.put("gehaltMax", List.of(gehaltMax.toString()));
+            }
+            if (artikel != null) {
+                map.put("artikel", List.of(artikel));
+            }
             return map;
         }
 }
@@ -0,0 +1,12 @@
+package com.acme.zulieferer.graphql;
+
+import java.util.List;
+
+/**
+ * Connection gemäß der Relay-Spezifikation für die seitenweise Suche nach Zulieferern.
+ *
+ * @param edges Die Kanten mit den Zulieferern und ihren Cursorn
+ * @param pageInfo Informationen zur aktuellen Seite
+ */
+public record ZuliefererConnection(List<ZuliefererEdge> edges, PageInfo pageInfo) {
+}
@@ -0,0 +1,12 @@
+package com.acme.zulieferer.graphql;
+
+import com.acme.zulieferer.repository.ZuliefererProjektion;
+
+/**
+ * Kante einer {@link ZuliefererConnection}.
+ *
+ * @param cursor Der Cursor, d.h. die ID des Zulieferers
+ * @param node Der Zulieferer
+ */
+public record ZuliefererEdge(String cursor, ZuliefererProjektion node) {
+}
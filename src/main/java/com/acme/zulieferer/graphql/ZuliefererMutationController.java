@@ -1,6 +1,8 @@
 package com.acme.zulieferer.graphql;
 
 import com.acme.zulieferer.entity.Zulieferer;
+import com.acme.zulieferer.service.AnlegeErgebnis;
+import com.acme.zulieferer.service.BatchTooLargeException;
 import com.acme.zulieferer.service.ConstraintViolationsException;
 import com.acme.zulieferer.service.EmailExistsException;
 import com.acme.zulieferer.service.ZuliefererWriteService;
@@ -45,6 +47,19 @@ public class ZuliefererMutationController {
         return new CreatePayload(id);
     }
 
+    /**
+     * Mehrere neue Zulieferer anlegen.
+     *
+     * @param input Die Eingabedaten für die neuen Zulieferer
+     * @return Das Ergebnis für jeden Zulieferer in der Reihenfolge der Eingabe
+     */
+    @MutationMapping
+    List<AnlegeErgebnis> createMany(@Argument final List<ZuliefererInput> input) {
+        log.debug("createMany: anzahl={}", input.size());
+        final var dieZulieferer = input.stream().map(mapper::toZulieferer).toList();
+        return service.createAll(dieZulieferer);
+    }
+
     @GraphQlExceptionHandler
     GraphQLError onEmailExists(final EmailExistsException ex) {
         final List<Object> path = List.of("input", "email"); // NOSONAR
@@ -55,6 +70,16 @@ public class ZuliefererMutationController {
             .build();
     }
 
+    @GraphQlExceptionHandler
+    GraphQLError onBatchTooLarge(final BatchTooLargeException ex) {
+        final List<Object> path = List.of("input");
+        return GraphQLError.newError()
+            .errorType(BAD_REQUEST)
+            .message(ex.getMessage())
+            .path(path)
+            .build();
+    }
+
     @GraphQlExceptionHandler
     GraphQLError onDateTimeParseException(final DateTimeParseException ex) {
         final List<Object> path = List.of("input", "geburtsdatum");
@@ -1,13 +1,18 @@
 package com.acme.zulieferer.graphql;
 
-import com.acme.zulieferer.entity.Zulieferer;
+import com.acme.zulieferer.entity.Lieferung;
+import com.acme.zulieferer.repository.ZuliefererProjektion;
 import com.acme.zulieferer.service.ZuliefererReadService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
 import org.springframework.stereotype.Controller;
-import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import static java.util.Collections.emptyMap;
@@ -16,34 +21,114 @@ import static java.util.Collections.emptyMap;
 @RequiredArgsConstructor
 @Slf4j
 public class ZuliefererQueryController {
+    private static final String ID = "id";
+
     private final ZuliefererReadService service;
 
     /**
-     * Suche anhand der Zulieferer-ID.
+     * Suche anhand der Zulieferer-ID. Wie bei den anderen Queries ist das Ergebnis eine {@link ZuliefererProjektion},
+     * damit die Batch-Mappings für den Typ `Zulieferer` nur Projektionen erhalten.
      *
      * @param id ID des zu suchenden Zulieferers
      * @return Der gefundene Zulieferer
      */
     @QueryMapping("zulieferer")
-    Zulieferer findById(@Argument final UUID id) {
+    ZuliefererProjektion findById(@Argument final UUID id) {
         log.debug("findById: id={}", id);
-        final var zulieferer = service.findById(id);
+        final var zulieferer = ZuliefererProjektion.of(service.findById(id));
         log.debug("findById: zulieferer={}", zulieferer);
         return zulieferer;
     }
 
     /**
-     * Suche mit diversen Suchkriterien.
+     * Seitenweise Suche mit diversen Suchkriterien als Connection gemäß der Relay-Spezifikation.
      *
-     * @param input Suchkriterien und ihre Werte, z.B. `nachname` und `Alpha`
-     * @return Die gefundenen Zulieferer als Collection
+     * @param input Suchkriterien und ihre Werte, z.B. `name` und `Alpha`
+     * @param first Anzahl der Zulieferer nach dem Cursor `after`
+     * @param after Cursor, nach dem die Seite beginnt
+     * @param last Anzahl der Zulieferer vor dem Cursor `before`
+     * @param before Cursor, vor dem die Seite endet
+     * @return Die gefundenen Zulieferer als Connection
      */
     @QueryMapping("dieZulieferer")
-    Collection<Zulieferer> find(@Argument final Optional<Suchkriterien> input) {
-        log.debug("find: suchkriterien={}", input);
+    ZuliefererConnection find(
+        @Argument final Optional<Suchkriterien> input,
+        @Argument final Integer first,
+        @Argument final UUID after,
+        @Argument final Integer last,
+        @Argument final UUID before
+    ) {
+        log.debug("find: suchkriterien={}, first={}, after={}, last={}, before={}", input, first, after, last, before);
         final var suchkriterien = input.map(Suchkriterien::toMap).orElse(emptyMap());
-        final var dieZulieferer = service.find(suchkriterien);
-        log.debug("find: dieZulieferer={}", dieZulieferer);
-        return dieZulieferer;
+
+        final var backward = after == null && (before != null || last != null);
+        final KeysetScrollPosition position;
+        final Integer count;
+        if (backward) {
+            position = before == null
+                ? ScrollPosition.keyset().backward()
+                : ScrollPosition.backward(Map.of(ID, before));
+            count = last;
+        } else {
+            position = after == null ? ScrollPosition.keyset() : ScrollPosition.forward(Map.of(ID, after));
+            count = first;
+        }
+
+        final var window = service.find(suchkriterien, position, count == null ? 0 : count);
+        final var edges = window
+            .stream()
+            .map(zulieferer -> new ZuliefererEdge(zulieferer.id().toString(), zulieferer))
+            .toList();
+        final var pageInfo = new PageInfo(
+            backward ? window.hasNext() : after != null,
+            backward ? before != null : window.hasNext(),
+            edges.getFirst().cursor(),
+            edges.getLast().cursor()
+        );
+        log.debug("find: pageInfo={}", pageInfo);
+        return new ZuliefererConnection(edges, pageInfo);
+    }
+
+    /**
+     * Namen zu einem Präfix für die Autovervollständigung suchen.
+     *
+     * @param prefix Präfix des Namens
+     * @param first Maximale Anzahl an Namen
+     * @return Die passenden Namen sortiert
+     */
+    @QueryMapping
+    List<String> namen(@Argument final String prefix, @Argument final Integer first) {
+        log.debug("namen: prefix={}, first={}", prefix, first);
+        return service.findNamenByPrefix(prefix, first == null ? 0 : first);
+    }
+
+    /**
+     * Unscharfe Suche über Name und Emailadresse mit Sortierung nach Relevanz.
+     *
+     * @param q Der Suchbegriff
+     * @param first Maximale Anzahl an Treffern
+     * @return Die gefundenen Zulieferer
+     */
+    @QueryMapping
+    List<ZuliefererProjektion> search(@Argument final String q, @Argument final Integer first) {
+        log.debug("search: q={}, first={}", q, first);
+        return service.search(q, first == null ? 0 : first);
+    }
+
+    /**
+     * Die Lieferungen für alle Zulieferer eines Ergebnisses mit einer einzigen Abfrage laden. Die Methode wird nur
+     * aufgerufen, wenn das Feld `lieferungen` in der Query enthalten ist.
+     *
+     * @param dieZulieferer Die Zulieferer des Ergebnisses
+     * @return Die Lieferungen je Zulieferer
+     */
+    @BatchMapping(typeName = "Zulieferer")
+    List<List<Lieferung>> lieferungen(final List<ZuliefererProjektion> dieZulieferer) {
+        log.debug("lieferungen: anzahl={}", dieZulieferer.size());
+        final var ids = dieZulieferer.stream().map(ZuliefererProjektion::id).toList();
+        final var lieferungen = service.findLieferungen(ids);
+        return ids.stream()
+            .map(id -> lieferungen.getOrDefault(id, List.of()))
+            .toList();
     }
 }
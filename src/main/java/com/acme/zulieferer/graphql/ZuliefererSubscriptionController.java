@@ -0,0 +1,74 @@
+package com.acme.zulieferer.graphql;
+
+import com.acme.zulieferer.service.Aenderung;
+import com.acme.zulieferer.service.ZuliefererAenderungService;
+import com.acme.zulieferer.service.ZuliefererEreignis;
+import com.acme.zulieferer.service.ZuliefererEreignisService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.SubscriptionMapping;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Flux;
+import java.util.List;
+import static com.acme.zulieferer.entity.ZuliefererAenderung.Art.CREATE;
+import static com.acme.zulieferer.entity.ZuliefererAenderung.Art.DELETE;
+import static com.acme.zulieferer.entity.ZuliefererAenderung.Art.UPDATE;
+
+/**
+ * Subscriptions für Änderungen an Zulieferern: der lückenlose Änderungs-Feed mit Cursor und die Ereignisse ab jetzt
+ * mit beschränktem Puffer je Abonnent. Subscriptions werden über WebSocket am Pfad `/graphql` übertragen.
+ */
+@Controller
+@RequiredArgsConstructor
+@Slf4j
+public class ZuliefererSubscriptionController {
+    private final ZuliefererAenderungService aenderungService;
+
+    private final ZuliefererEreignisService ereignisService;
+
+    /**
+     * Änderungen an Zulieferern aus dem Änderungs-Feed, ggf. zuerst die Änderungen nach dem Cursor `since`.
+     *
+     * @param since Cursor, d.h. laufende Nummer der zuletzt gelesenen Änderung, oder null für nur neue Änderungen
+     * @return Die Änderungen sortiert nach der laufenden Nummer
+     */
+    @SubscriptionMapping
+    Flux<Aenderung> zuliefererChanged(@Argument final Long since) {
+        log.debug("zuliefererChanged: since={}", since);
+        return since == null ? aenderungService.stream() : aenderungService.stream(Math.max(since, 0));
+    }
+
+    /**
+     * Neu angelegte Zulieferer ab jetzt.
+     *
+     * @param ueberlauf Verhalten bei einem vollen Puffer oder null für den konfigurierten Default
+     * @return Die Ereignisse zu neu angelegten Zulieferern
+     */
+    @SubscriptionMapping
+    Flux<ZuliefererEreignis> zuliefererCreated(@Argument final ZuliefererEreignisService.Ueberlauf ueberlauf) {
+        return ereignisService.abonnieren(List.of(CREATE), ueberlauf);
+    }
+
+    /**
+     * Aktualisierte Zulieferer ab jetzt.
+     *
+     * @param ueberlauf Verhalten bei einem vollen Puffer oder null für den konfigurierten Default
+     * @return Die Ereignisse zu aktualisierten Zulieferern
+     */
+    @SubscriptionMapping
+    Flux<ZuliefererEreignis> zuliefererUpdated(@Argument final ZuliefererEreignisService.Ueberlauf ueberlauf) {
+        return ereignisService.abonnieren(List.of(UPDATE), ueberlauf);
+    }
+
+    /**
+     * Gelöschte Zulieferer ab jetzt.
+     *
+     * @param ueberlauf Verhalten bei einem vollen Puffer oder null für den konfigurierten Default
+     * @return Die Ereignisse zu gelöschten Zulieferern
+     */
+    @SubscriptionMapping
+    Flux<ZuliefererEreignis> zuliefererDeleted(@Argument final ZuliefererEreignisService.Ueberlauf ueberlauf) {
+        return ereignisService.abonnieren(List.of(DELETE), ueberlauf);
+    }
+}
@@ -0,0 +1,41 @@
+package com.acme.zulieferer.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import java.util.List;
+import java.util.UUID;
+import static org.springframework.boot.jdbc.DatabaseDriver.POSTGRESQL;
+
+/**
+ * Unscharfe, nach Relevanz sortierte Suche nach Zulieferern über Name und Emailadresse. Bei PostgreSQL wird die
+ * Ähnlichkeit über Trigramme der Extension `pg_trgm` berechnet, ansonsten wird eine Teilstring-Suche verwendet.
+ */
+@Component
+@Slf4j
+public class AehnlichkeitsSuche {
+    private final ZuliefererRepository repo;
+    private final boolean trigramme;
+
+    AehnlichkeitsSuche(final ZuliefererRepository repo, final DataSourceProperties dataSourceProperties) {
+        this.repo = repo;
+        trigramme = DatabaseDriver.fromJdbcUrl(dataSourceProperties.getUrl()) == POSTGRESQL;
+        log.debug("AehnlichkeitsSuche: trigramme={}", trigramme);
+    }
+
+    /**
+     * IDs der Zulieferer zu einem Suchbegriff, absteigend nach Relevanz sortiert.
+     *
+     * @param teil Der Suchbegriff
+     * @param limit Maximale Anzahl an Treffern
+     * @return Die IDs der gefundenen Zulieferer
+     */
+    public List<UUID> findIds(final String teil, final int limit) {
+        log.debug("findIds: teil={}, limit={}", teil, limit);
+        return trigramme
+            ? repo.findIdsByAehnlichkeit(teil, limit)
+            : repo.findIdsByTeilstring(teil, Limit.of(limit));
+    }
+}
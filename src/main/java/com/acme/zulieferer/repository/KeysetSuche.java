@@ -0,0 +1,104 @@
+package com.acme.zulieferer.repository;
+
+import com.acme.zulieferer.entity.Geschaeftsfuehrer_;
+import com.acme.zulieferer.entity.Zulieferer;
+import com.acme.zulieferer.entity.Zulieferer_;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.Predicate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keyset-Pagination über die ID mit {@link ZuliefererProjektion} als Ergebnis. Die Abfrage wird mit der Criteria
+ * API erstellt, damit auch die Specifications der Suchkriterien verwendet werden können, und selektiert die Spalten
+ * der Projektion einschließlich Geschaeftsfuehrer explizit mit einem Konstruktor-Ausdruck.
+ * <p>
+ * Es wird ein Datensatz mehr als angefordert gelesen, um festzustellen, ob es in Leserichtung weitere Datensätze
+ * gibt. Beim Rückwärtslesen wird absteigend sortiert gelesen und das Ergebnis umgedreht, d.h. der Inhalt eines
+ * Ausschnitts ist immer aufsteigend nach der ID sortiert.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class KeysetSuche {
+    /**
+     * Name des Schlüssels in der {@link KeysetScrollPosition}.
+     */
+    public static final String ID = "id";
+
+    private final EntityManager entityManager;
+
+    /**
+     * Einen Ausschnitt der Zulieferer lesen.
+     *
+     * @param spec Specification mit den Suchkriterien oder null für alle Zulieferer
+     * @param position Position, ab bzw. bis zu der gelesen wird
+     * @param size Maximale Anzahl der Zulieferer im Ausschnitt
+     * @return Der Ausschnitt mit den gefundenen Zulieferern
+     */
+    public Window<ZuliefererProjektion> find(
+        @Nullable final Specification<Zulieferer> spec,
+        final KeysetScrollPosition position,
+        final int size
+    ) {
+        log.debug("find: position={}, size={}", position, size);
+        final var builder = entityManager.getCriteriaBuilder();
+        final var query = builder.createQuery(ZuliefererProjektion.class);
+        final var root = query.from(Zulieferer.class);
+        // der Join wird von den Suchkriterien zum Geschaeftsfuehrer mitverwendet
+        final var geschaeftsfuehrer = root.join(Zulieferer_.geschaeftsfuehrer);
+        query.select(builder.construct(
+            ZuliefererProjektion.class,
+            root.get(Zulieferer_.id),
+            root.get(Zulieferer_.version),
+            root.get(Zulieferer_.name),
+            root.get(Zulieferer_.email),
+            geschaeftsfuehrer.get(Geschaeftsfuehrer_.id),
+            geschaeftsfuehrer.get(Geschaeftsfuehrer_.name),
+            geschaeftsfuehrer.get(Geschaeftsfuehrer_.email),
+            geschaeftsfuehrer.get(Geschaeftsfuehrer_.gehalt)
+        ));
+
+        final List<Predicate> predicates = new ArrayList<>(2);
+        if (spec != null) {
+            final var predicate = spec.toPredicate(root, query, builder);
+            if (predicate != null) {
+                predicates.add(predicate);
+            }
+        }
+        final var id = root.get(Zulieferer_.id);
+        final var backward = position.scrollsBackward();
+        if (position.getKeys().get(ID) instanceof UUID key) {
+            predicates.add(backward ? builder.lessThan(id, key) : builder.greaterThan(id, key));
+        }
+        query
+            .where(predicates.toArray(Predicate[]::new))
+            .orderBy(backward ? builder.desc(id) : builder.asc(id));
+
+        final var ergebnis = entityManager.createQuery(query)
+            .setMaxResults(size + 1)
+            .getResultList();
+        final var hasNext = ergebnis.size() > size;
+        final var content = new ArrayList<>(hasNext ? ergebnis.subList(0, size) : ergebnis);
+        if (backward) {
+            Collections.reverse(content);
+        }
+        log.debug("find: anzahl={}, hasNext={}", content.size(), hasNext);
+        return Window.from(
+            content,
+            index -> ScrollPosition.forward(Map.of(ID, content.get(index).id())),
+            hasNext
+        );
+    }
+}
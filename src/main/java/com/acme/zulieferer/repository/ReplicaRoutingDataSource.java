@@ -0,0 +1,374 @@
+package com.acme.zulieferer.repository;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.sql.DataSource;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import static java.lang.StringTemplate.STR;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Comparator.comparingLong;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * DataSource, die Verbindungen für Transaktionen mit `readOnly = true` von einem Replikat und alle anderen
+ * Verbindungen von der primären Datenbank holt.
+ * <p>
+ * Entschieden wird beim Holen der Verbindung anhand von
+ * {@link TransactionSynchronizationManager#isCurrentTransactionReadOnly()}. Deshalb muss die DataSource in einen
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} eingebettet sein, damit die Verbindung
+ * erst bei der ersten SQL-Anweisung und damit nach dem Beginn der Transaktion geholt wird.
+ * <p>
+ * Read-your-writes: Nach einer schreibenden Transaktion liest derselbe Client für die Dauer `readYourWrites` von
+ * der primären Datenbank, damit er seine eigenen Änderungen trotz Verzögerung bei der Replikation sieht. Dazu
+ * erhält der Client nach dem Commit den Zeitpunkt des Schreibzugriffs mit einem HMAC signiert im Cookie
+ * {@value #COOKIE} und im Header {@value #HEADER} und sendet ihn mit den folgenden Requests zurück, als Cookie oder
+ * z.B. ohne Cookie-Speicher als Header. Damit gilt read-your-writes für jede Instanz, die denselben Schlüssel
+ * verwendet, ohne Sticky Sessions und ohne Zustand je Client. Ohne konfigurierten Schlüssel wird ein zufälliger
+ * Schlüssel je Prozess erzeugt, d.h. nur die eigene Instanz erkennt die Signatur. Die Uhren der Instanzen müssen
+ * synchronisiert sein, z.B. durch NTP.
+ * <p>
+ * Mit {@link #primary(Supplier)} wird auch in einer Transaktion mit `readOnly = true` von der primären Datenbank
+ * gelesen, z.B. für die aktuelle Version eines Datensatzes, ohne dass dies als Schreibzugriff gilt.
+ * <p>
+ * Ein Replikat kann auch ein eigener Pool zum Lesen für die primäre Datenbank sein.
+ * <p>
+ * Die Replikate werden periodisch geprüft. Ein nicht erreichbares Replikat wird bis zur nächsten erfolgreichen
+ * Prüfung übersprungen; ist kein Replikat verfügbar, wird von der primären Datenbank gelesen.
+ */
+@Slf4j
+public final class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+    /**
+     * Auswahl eines Replikats für eine lesende Transaktion.
+     */
+    public enum Auswahl {
+        /**
+         * Die verfügbaren Replikate werden reihum verwendet.
+         */
+        ROUND_ROBIN,
+
+        /**
+         * Es wird das verfügbare Replikat mit der geringsten gemessenen Latenz verwendet.
+         */
+        LEAST_LATENCY
+    }
+
+    private static final int TIMEOUT_SEKUNDEN = 2;
+
+    /**
+     * Name des Cookies mit dem signierten Zeitpunkt des letzten Schreibzugriffs.
+     */
+    public static final String COOKIE = "zulieferer-rw";
+
+    /**
+     * Name des Headers mit dem signierten Zeitpunkt des letzten Schreibzugriffs.
+     */
+    public static final String HEADER = "X-Read-Your-Writes";
+
+    private static final String HMAC = "HmacSHA256";
+
+    private static final int KEY_LENGTH = 32;
+
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+    // Gewicht einer neuen Messung fuer den exponentiell gleitenden Mittelwert der Latenz
+    private static final double GEWICHT = 0.2;
+
+    private final HikariDataSource primary;
+
+    private final List<Replikat> replikate;
+
+    private final Auswahl auswahl;
+
+    private final Duration readYourWrites;
+
+    private final SecretKeySpec key;
+
+    private final AtomicInteger naechstes = new AtomicInteger();
+
+    private final ScheduledExecutorService healthCheck;
+
+    private static final class Replikat {
+        private final HikariDataSource dataSource;
+        private volatile boolean verfuegbar = true;
+        private volatile long latenzNanos;
+
+        private Replikat(final HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Verbinder {
+        Connection verbinden(DataSource dataSource) throws SQLException;
+    }
+
+    /**
+     * Konstruktor mit den Pools für die primäre Datenbank und die Replikate.
+     *
+     * @param primary Pool für die primäre Datenbank
+     * @param replikate Pools für die Replikate
+     * @param auswahl Auswahl eines Replikats
+     * @param readYourWrites Dauer, in der ein Client nach einem Schreibzugriff von der primären Datenbank liest
+     * @param schluessel Gemeinsamer Schlüssel aller Instanzen für die Signatur des Zeitpunkts oder null bzw. leer
+     * @param healthCheck Intervall für die Prüfung der Replikate
+     */
+    public ReplicaRoutingDataSource(
+        final HikariDataSource primary,
+        final List<HikariDataSource> replikate,
+        final Auswahl auswahl,
+        final Duration readYourWrites,
+        final String schluessel,
+        final Duration healthCheck
+    ) {
+        this.primary = primary;
+        this.replikate = replikate.stream().map(Replikat::new).toList();
+        this.auswahl = auswahl;
+        this.readYourWrites = readYourWrites;
+        if (schluessel == null || schluessel.isBlank()) {
+            log.warn("ReplicaRoutingDataSource: kein Schluessel fuer read-your-writes, d.h. nur je Instanz");
+            final var bytes = new byte[KEY_LENGTH];
+            new SecureRandom().nextBytes(bytes);
+            key = new SecretKeySpec(bytes, HMAC);
+        } else {
+            key = new SecretKeySpec(schluessel.getBytes(UTF_8), HMAC);
+        }
+        this.healthCheck = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofVirtual().name("replica-health-check").factory()
+        );
+        final var intervall = healthCheck.toMillis();
+        this.healthCheck.scheduleWithFixedDelay(this::pruefen, intervall, intervall, MILLISECONDS);
+        log.info(
+            "ReplicaRoutingDataSource: replikate={}, auswahl={}, readYourWrites={}",
+            replikate.size(),
+            auswahl,
+            readYourWrites
+        );
+    }
+
+    /**
+     * Eine Aktion ausführen, deren Verbindungen stets von der primären Datenbank geholt werden, auch in einer
+     * Transaktion mit `readOnly = true`. Da die Verbindung erst bei der ersten SQL-Anweisung geholt wird, muss die
+     * erste SQL-Anweisung der Transaktion innerhalb der Aktion ausgeführt werden.
+     *
+     * @param aktion Die auszuführende Aktion
+     * @param <T> Typ des Ergebnisses
+     * @return Das Ergebnis der Aktion
+     */
+    public static <T> T primary(final Supplier<T> aktion) {
+        final var vorher = PRIMARY.get();
+        PRIMARY.set(Boolean.TRUE);
+        try {
+            return aktion.get();
+        } finally {
+            if (vorher == null) {
+                PRIMARY.remove();
+            }
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connection(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(final String username, final String password) throws SQLException {
+        return connection(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    /**
+     * Alle Pools, z.B. für die Auslastung im Actuator-Endpoint.
+     *
+     * @return Der Pool zum Schreiben gefolgt von den Pools zum Lesen
+     */
+    public List<HikariDataSource> getPools() {
+        final var pools = new ArrayList<HikariDataSource>(replikate.size() + 1);
+        pools.add(primary);
+        replikate.forEach(replikat -> pools.add(replikat.dataSource));
+        return pools;
+    }
+
+    @Override
+    public void close() {
+        healthCheck.shutdownNow();
+        replikate.forEach(replikat -> replikat.dataSource.close());
+        primary.close();
+    }
+
+    private Connection connection(final Verbinder verbinder) throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            schreibzugriff();
+            return verbinder.verbinden(primary);
+        }
+        if (PRIMARY.get() != null) {
+            log.trace("connection: primary angefordert");
+            return verbinder.verbinden(primary);
+        }
+
+        if (hatGeschrieben()) {
+            log.trace("connection: primary wegen read-your-writes");
+            return verbinder.verbinden(primary);
+        }
+
+        final var replikat = auswaehlen();
+        if (replikat == null) {
+            return verbinder.verbinden(primary);
+        }
+        try {
+            return verbinder.verbinden(replikat.dataSource);
+        } catch (final SQLException ex) {
+            final var poolName = replikat.dataSource.getPoolName();
+            log.warn("connection: Replikat {} nicht verfuegbar: {}", poolName, ex.getMessage());
+            replikat.verfuegbar = false;
+            return verbinder.verbinden(primary);
+        }
+    }
+
+    private Replikat auswaehlen() {
+        final var verfuegbar = replikate.stream()
+            .filter(replikat -> replikat.verfuegbar)
+            .toList();
+        if (verfuegbar.isEmpty()) {
+            return null;
+        }
+        return switch (auswahl) {
+            case ROUND_ROBIN -> verfuegbar.get(Math.floorMod(naechstes.getAndIncrement(), verfuegbar.size()));
+            case LEAST_LATENCY -> verfuegbar.stream()
+                .min(comparingLong(replikat -> replikat.latenzNanos))
+                .orElseThrow();
+        };
+    }
+
+    // Der Zeitpunkt wird erst nach dem Commit an den Client gesendet, damit das Zeitfenster ab dem Commit laeuft
+    private void schreibzugriff() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+            || !TransactionSynchronizationManager.isSynchronizationActive()
+            || !(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                senden(attributes);
+            }
+        });
+    }
+
+    private void senden(final ServletRequestAttributes attributes) {
+        final var response = attributes.getResponse();
+        if (response == null || response.isCommitted()) {
+            return;
+        }
+        final var zeitpunkt = String.valueOf(System.currentTimeMillis());
+        final var wert = STR."\{zeitpunkt}.\{signatur(zeitpunkt)}";
+        final var cookie = ResponseCookie.from(COOKIE, wert)
+            .path("/")
+            .maxAge(readYourWrites)
+            .httpOnly(true)
+            .secure(attributes.getRequest().isSecure())
+            .sameSite("Lax")
+            .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+        response.setHeader(HEADER, wert);
+    }
+
+    private boolean hatGeschrieben() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return false;
+        }
+        final var wert = wert(attributes.getRequest());
+        if (wert == null) {
+            return false;
+        }
+        final var punkt = wert.indexOf('.');
+        if (punkt <= 0) {
+            return false;
+        }
+        final var zeitpunkt = wert.substring(0, punkt);
+        final var erwartet = signatur(zeitpunkt).getBytes(UTF_8);
+        if (!MessageDigest.isEqual(erwartet, wert.substring(punkt + 1).getBytes(UTF_8))) {
+            log.debug("hatGeschrieben: ungueltige Signatur");
+            return false;
+        }
+        try {
+            final var alter = System.currentTimeMillis() - Long.parseLong(zeitpunkt);
+            return alter >= 0 && alter < readYourWrites.toMillis();
+        } catch (final NumberFormatException ex) {
+            return false;
+        }
+    }
+
+    // zuerst der Header, z.B. fuer Clients ohne Cookie-Speicher
+    private static String wert(final HttpServletRequest request) {
+        final var header = request.getHeader(HEADER);
+        if (header != null) {
+            return header;
+        }
+        final var cookies = request.getCookies();
+        if (cookies == null) {
+            return null;
+        }
+        for (final var cookie : cookies) {
+            if (COOKIE.equals(cookie.getName())) {
+                return cookie.getValue();
+            }
+        }
+        return null;
+    }
+
+    private String signatur(final String zeitpunkt) {
+        try {
+            final var mac = Mac.getInstance(HMAC);
+            mac.init(key);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(mac.doFinal(zeitpunkt.getBytes(UTF_8)));
+        } catch (final GeneralSecurityException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private void pruefen() {
+        for (final var replikat : replikate) {
+            final var poolName = replikat.dataSource.getPoolName();
+            final var start = System.nanoTime();
+            try (var connection = replikat.dataSource.getConnection()) {
+                if (!connection.isValid(TIMEOUT_SEKUNDEN)) {
+                    throw new SQLException("Verbindung ungueltig");
+                }
+                final var latenz = System.nanoTime() - start;
+                final var latenzAlt = replikat.latenzNanos;
+                replikat.latenzNanos = latenzAlt == 0 ? latenz : (long) (GEWICHT * latenz + (1 - GEWICHT) * latenzAlt);
+                if (!replikat.verfuegbar) {
+                    log.info("pruefen: Replikat {} wieder verfuegbar", poolName);
+                }
+                replikat.verfuegbar = true;
+            } catch (final SQLException ex) {
+                if (replikat.verfuegbar) {
+                    log.warn("pruefen: Replikat {} nicht verfuegbar: {}", poolName, ex.getMessage());
+                }
+                replikat.verfuegbar = false;
+            }
+        }
+    }
+}
@@ -1,20 +1,79 @@
 package com.acme.zulieferer.repository;
 
+import com.acme.zulieferer.entity.Geschaeftsfuehrer;
+import com.acme.zulieferer.entity.Geschaeftsfuehrer_;
+import com.acme.zulieferer.entity.Lieferung_;
 import com.acme.zulieferer.entity.Zulieferer;
 import com.acme.zulieferer.entity.Zulieferer_;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import static java.lang.StringTemplate.STR;
 
+/**
+ * Specifications für die Suche nach Zulieferern aus Query Parametern erstellen. Die Werte der Suchkriterien werden
+ * nicht als Literale, sondern als Bind-Parameter übergeben. Dadurch ist das generierte SQL für eine Kombination von
+ * Suchkriterien immer gleich und Hibernate kann den übersetzten Query-Plan aus dem Plan-Cache verwenden (siehe
+ * `hibernate.criteria.plan_cache_enabled` in `application.yml`).
+ */
 @Component
 @Slf4j
 public class SpecificationBuilder {
+    /**
+     * Suchkriterium für einen Teil des Namens.
+     */
+    public static final String NAME = "name";
+    /**
+     * Suchkriterium für einen Teil der Emailadresse.
+     */
+    public static final String EMAIL = "email";
+    /**
+     * Suchkriterium für einen Teil des Namens des Geschaeftsfuehrers.
+     */
+    public static final String GESCHAEFTSFUEHRER = "geschaeftsfuehrer";
+    /**
+     * Suchkriterium für das minimale Gehalt des Geschaeftsfuehrers.
+     */
+    public static final String GEHALT_MIN = "gehaltMin";
+    /**
+     * Suchkriterium für das maximale Gehalt des Geschaeftsfuehrers.
+     */
+    public static final String GEHALT_MAX = "gehaltMax";
+    /**
+     * Suchkriterium für einen Teil eines gelieferten Artikels.
+     */
+    public static final String ARTIKEL = "artikel";
 
-    public Optional<Specification<Zulieferer>> build(Map<String, List<String>> queryParams) {
+    // einmalig erzeugte Fabriken fuer die Specifications der Suchkriterien
+    private static final Map<String, Function<String, Specification<Zulieferer>>> KRITERIEN = Map.of(
+        NAME, SpecificationBuilder::name,
+        EMAIL, SpecificationBuilder::email,
+        GESCHAEFTSFUEHRER, SpecificationBuilder::geschaeftsfuehrerName,
+        GEHALT_MIN, SpecificationBuilder::gehaltMin,
+        GEHALT_MAX, SpecificationBuilder::gehaltMax,
+        ARTIKEL, SpecificationBuilder::artikel
+    );
+
+    /**
+     * Die Namen aller unterstützten Suchkriterien.
+     */
+    public static final Set<String> SUCHKRITERIEN = KRITERIEN.keySet();
+
+    /**
+     * Eine Specification aus Query Parametern erstellen. Mehrere Suchkriterien werden mit UND verknüpft.
+     *
+     * @param queryParams Die Query Parameter
+     * @return Die Specification oder ein leeres Optional, falls ein Suchkriterium unbekannt oder ungültig ist
+     */
+    public Optional<Specification<Zulieferer>> build(final Map<String, List<String>> queryParams) {
         log.debug("build: queryParams={}", queryParams);
 
         if (queryParams.isEmpty()) {
@@ -34,34 +93,85 @@ public class SpecificationBuilder {
         return Optional.of(Specification.allOf(specs));
     }
 
-    private Specification<Zulieferer> toSpecification(Map.Entry<String, List<String>> entry) {
+    private Specification<Zulieferer> toSpecification(final Map.Entry<String, List<String>> entry) {
         log.trace("toSpec: entry={}", entry);
-        final var key = entry.getKey();
         final var values = entry.getValue();
-
         if (values == null || values.size() != 1) {
             return null;
         }
 
-        final var value = values.getFirst();
-        return switch (key) {
-            case "name" -> name(value);
-            case "email" ->  email(value);
-            default -> null;
-        };
+        final var kriterium = KRITERIEN.get(entry.getKey());
+        if (kriterium == null) {
+            return null;
+        }
+        try {
+            return kriterium.apply(values.getFirst());
+        } catch (final NumberFormatException ex) {
+            log.debug("toSpec: ungueltiger Wert fuer {}: {}", entry.getKey(), values.getFirst());
+            return null;
+        }
+    }
+
+    private static Specification<Zulieferer> name(final String teil) {
+        final var muster = muster(teil);
+        return (root, query, builder) -> builder.like(builder.lower(root.get(Zulieferer_.name)), muster);
+    }
+
+    private static Specification<Zulieferer> email(final String teil) {
+        final var muster = muster(teil);
+        return (root, query, builder) -> builder.like(builder.lower(root.get(Zulieferer_.email)), muster);
     }
 
-    private Specification<Zulieferer> name(final String teil) {
+    private static Specification<Zulieferer> geschaeftsfuehrerName(final String teil) {
+        final var muster = muster(teil);
         return (root, query, builder) -> builder.like(
-            builder.lower(root.get(Zulieferer_.name)),
-            builder.lower(builder.literal(STR."%\{teil}%"))
+            builder.lower(geschaeftsfuehrer(root).get(Geschaeftsfuehrer_.name)),
+            muster
         );
     }
 
-    private Specification<Zulieferer> email(final String teil) {
-        return (root, query, builder) -> builder.like(
-            builder.lower(root.get(Zulieferer_.email)),
-            builder.lower(builder.literal(STR."%\{teil}%"))
+    private static Specification<Zulieferer> gehaltMin(final String wert) {
+        final var gehalt = Integer.valueOf(wert);
+        return (root, query, builder) -> builder.greaterThanOrEqualTo(
+            geschaeftsfuehrer(root).get(Geschaeftsfuehrer_.gehalt),
+            gehalt
+        );
+    }
+
+    private static Specification<Zulieferer> gehaltMax(final String wert) {
+        final var gehalt = Integer.valueOf(wert);
+        return (root, query, builder) -> builder.lessThanOrEqualTo(
+            geschaeftsfuehrer(root).get(Geschaeftsfuehrer_.gehalt),
+            gehalt
         );
     }
+
+    // EXISTS statt JOIN: keine doppelten Zulieferer und damit kein DISTINCT bei der Keyset-Pagination
+    private static Specification<Zulieferer> artikel(final String teil) {
+        final var muster = muster(teil);
+        return (root, query, builder) -> {
+            final var subquery = query.subquery(Integer.class);
+            final var zulieferer = subquery.correlate(root);
+            final var lieferung = zulieferer.join(Zulieferer_.lieferungen);
+            subquery
+                .select(builder.literal(1))
+                .where(builder.like(builder.lower(lieferung.get(Lieferung_.artikel)), muster));
+            return builder.exists(subquery);
+        };
+    }
+
+    // Der Join zum Geschaeftsfuehrer wird von mehreren Suchkriterien gemeinsam verwendet
+    @SuppressWarnings("unchecked")
+    private static Join<Zulieferer, Geschaeftsfuehrer> geschaeftsfuehrer(final Root<Zulieferer> root) {
+        return root.getJoins()
+            .stream()
+            .filter(join -> Zulieferer_.GESCHAEFTSFUEHRER.equals(join.getAttribute().getName()))
+            .map(join -> (Join<Zulieferer, Geschaeftsfuehrer>) join)
+            .findFirst()
+            .orElseGet(() -> root.join(Zulieferer_.geschaeftsfuehrer));
+    }
+
+    private static String muster(final String teil) {
+        return STR."%\{teil.toLowerCase(Locale.ROOT)}%";
+    }
 }
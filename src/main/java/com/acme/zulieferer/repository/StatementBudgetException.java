@@ -0,0 +1,10 @@
+package com.acme.zulieferer.repository;
+
+/**
+ * RuntimeException, falls ein Request mehr SQL-Anweisungen als erlaubt ausführt.
+ */
+public class StatementBudgetException extends RuntimeException {
+    StatementBudgetException(final String message) {
+        super(message);
+    }
+}
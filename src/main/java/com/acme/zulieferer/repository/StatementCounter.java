@@ -0,0 +1,147 @@
+package com.acme.zulieferer.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import static java.lang.StringTemplate.STR;
+import static java.util.stream.Collectors.toMap;
+
+/**
+ * Zählt die SQL-Anweisungen, die Hibernate innerhalb eines Requests ausführt. Die Zählung erfolgt je Thread zwischen
+ * {@link #start(int)} und {@link #stop()}; ohne vorheriges `start()` wird nicht gezählt.
+ * Die Klasse registriert sich selbst als `StatementInspector` bei Hibernate. Als `TaskDecorator` überträgt sie die
+ * Zählung in die Tasks des `applicationTaskExecutor`, d.h. auch in asynchrone Requests wie `StreamingResponseBody`.
+ * <p>
+ * Für jeden Request gibt es ein Budget an SQL-Anweisungen, z.B. `app.statements.budget` oder 0 für kein Budget. Im
+ * Modus `fail` (`app.statements.modus`) wird die Anweisung, die das Budget überschreitet, mit einer
+ * {@link StatementBudgetException} abgebrochen, im Modus `log` wird die Überschreitung nur protokolliert.
+ * Wird dieselbe Anweisung mindestens `app.statements.n-plus-1` Mal ausgeführt, ist das ein Verdacht auf N+1.
+ */
+@Component
+@Slf4j
+public class StatementCounter implements StatementInspector, HibernatePropertiesCustomizer, TaskDecorator {
+    private static final ThreadLocal<Zaehler> ZAEHLER = new ThreadLocal<>();
+
+    private final boolean fail;
+
+    private final int nPlusOneSchwelle;
+
+    /**
+     * Statistik der SQL-Anweisungen eines Requests.
+     *
+     * @param anzahl Anzahl aller SQL-Anweisungen
+     * @param wiederholt Anweisungen, die mindestens so oft wie die N+1-Schwelle ausgeführt wurden, mit ihrer Anzahl
+     * @param budgetUeberschritten true, falls das Budget überschritten wurde
+     */
+    public record Statistik(int anzahl, Map<String, Integer> wiederholt, boolean budgetUeberschritten) {
+    }
+
+    /**
+     * Zählung der SQL-Anweisungen eines Requests. Sie wird nacheinander von verschiedenen Threads fortgesetzt, z.B.
+     * vom Request-Thread und danach vom Thread für einen asynchronen Response-Body.
+     */
+    public static final class Zaehler {
+        private final int budget;
+        private final Map<String, Integer> anweisungen = new ConcurrentHashMap<>();
+        private final AtomicInteger anzahl = new AtomicInteger();
+
+        private Zaehler(final int budget) {
+            this.budget = budget;
+        }
+
+        private boolean isUeberschritten(final int anzahlAktuell) {
+            return budget > 0 && anzahlAktuell > budget;
+        }
+    }
+
+    StatementCounter(
+        @Value("${app.statements.modus:log}") final String modus,
+        @Value("${app.statements.n-plus-1:3}") final int nPlusOneSchwelle
+    ) {
+        fail = "fail".equalsIgnoreCase(modus);
+        this.nPlusOneSchwelle = nPlusOneSchwelle;
+        log.info("StatementCounter: modus={}, nPlusOneSchwelle={}", modus, nPlusOneSchwelle);
+    }
+
+    @Override
+    public void customize(final Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+    @Override
+    public String inspect(final String sql) {
+        final var zaehler = ZAEHLER.get();
+        if (zaehler == null) {
+            return sql;
+        }
+        final var anzahl = zaehler.anzahl.incrementAndGet();
+        zaehler.anweisungen.merge(sql, 1, Integer::sum);
+        if (fail && zaehler.isUeberschritten(anzahl)) {
+            throw new StatementBudgetException(STR."Mehr als \{zaehler.budget} SQL-Anweisungen im Request: \{sql}");
+        }
+        return sql;
+    }
+
+    // die Zaehlung des aufrufenden Threads im Task fortsetzen, z.B. fuer StreamingResponseBody
+    @Override
+    public Runnable decorate(final Runnable runnable) {
+        final var zaehler = ZAEHLER.get();
+        if (zaehler == null) {
+            return runnable;
+        }
+        return () -> {
+            final var vorher = ZAEHLER.get();
+            ZAEHLER.set(zaehler);
+            try {
+                runnable.run();
+            } finally {
+                if (vorher == null) {
+                    ZAEHLER.remove();
+                } else {
+                    ZAEHLER.set(vorher);
+                }
+            }
+        };
+    }
+
+    /**
+     * Die Zählung für den aktuellen Thread beginnen.
+     *
+     * @param budget Maximale Anzahl an SQL-Anweisungen oder 0 für kein Budget
+     * @return Die Zählung, um sie nach einem asynchronen Request mit {@link #auswerten(Zaehler)} auszuwerten
+     */
+    public Zaehler start(final int budget) {
+        final var zaehler = new Zaehler(budget);
+        ZAEHLER.set(zaehler);
+        return zaehler;
+    }
+
+    /**
+     * Die Zählung für den aktuellen Thread beenden. Tasks, an die die Zählung übertragen wurde, zählen weiter.
+     */
+    public void stop() {
+        ZAEHLER.remove();
+    }
+
+    /**
+     * Die bisherige Zählung auswerten.
+     *
+     * @param zaehler Die Zählung von {@link #start(int)}
+     * @return Statistik der SQL-Anweisungen
+     */
+    public Statistik auswerten(final Zaehler zaehler) {
+        final var anzahl = zaehler.anzahl.get();
+        final var wiederholt = zaehler.anweisungen.entrySet()
+            .stream()
+            .filter(entry -> entry.getValue() >= nPlusOneSchwelle)
+            .collect(toMap(Map.Entry::getKey, Map.Entry::getValue));
+        return new Statistik(anzahl, wiederholt, zaehler.isUeberschritten(anzahl));
+    }
+}
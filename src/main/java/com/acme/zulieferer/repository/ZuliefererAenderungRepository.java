@@ -0,0 +1,49 @@
+package com.acme.zulieferer.repository;
+
+import com.acme.zulieferer.entity.ZuliefererAenderung;
+import java.util.List;
+import java.util.Optional;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+import static jakarta.persistence.LockModeType.PESSIMISTIC_WRITE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+/**
+ * Repository für die Outbox mit den Änderungen an Zulieferern.
+ */
+@Repository
+public interface ZuliefererAenderungRepository extends JpaRepository<ZuliefererAenderung, Long> {
+    /**
+     * Die noch nicht veröffentlichten Änderungen in der Reihenfolge ihrer ID lesen und sperren. Ein weiteres Relay
+     * wartet auf die Sperren und vergibt seine Nummern erst nach dem Commit, d.h. die Nummern entsprechen der
+     * Reihenfolge der Commits.
+     *
+     * @param limit Maximale Anzahl an Änderungen
+     * @return Die gesperrten Änderungen
+     */
+    @Lock(PESSIMISTIC_WRITE)
+    List<ZuliefererAenderung> findByNummerIsNullOrderByIdAsc(Limit limit);
+
+    /**
+     * Die höchste bereits vergebene laufende Nummer ermitteln.
+     *
+     * @return Die höchste Nummer oder ein leeres Optional, falls noch keine Änderung veröffentlicht wurde
+     */
+    @Query("SELECT max(a.nummer) FROM ZuliefererAenderung a")
+    Optional<Long> findMaxNummer();
+
+    /**
+     * Die veröffentlichten Änderungen nach einer laufenden Nummer lesen.
+     *
+     * @param nummer Laufende Nummer, nach der gelesen wird
+     * @param limit Maximale Anzahl an Änderungen
+     * @return Die Änderungen sortiert nach der laufenden Nummer
+     */
+    @QueryHints(@QueryHint(name = HINT_READ_ONLY, value = "true"))
+    List<ZuliefererAenderung> findByNummerGreaterThanOrderByNummerAsc(long nummer, Limit limit);
+}
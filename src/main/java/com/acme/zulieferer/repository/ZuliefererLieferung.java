@@ -0,0 +1,13 @@
+package com.acme.zulieferer.repository;
+
+import com.acme.zulieferer.entity.Lieferung;
+import java.util.UUID;
+
+/**
+ * Lieferung zusammen mit der ID des zugehörigen Zulieferers für das Batch-Laden.
+ *
+ * @param zuliefererId ID des Zulieferers
+ * @param lieferung Die Lieferung
+ */
+public record ZuliefererLieferung(UUID zuliefererId, Lieferung lieferung) {
+}
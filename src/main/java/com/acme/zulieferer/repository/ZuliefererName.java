@@ -0,0 +1,13 @@
+package com.acme.zulieferer.repository;
+
+import java.util.UUID;
+
+/**
+ * ID, Versionsnummer und Name eines Zulieferers für den Index der Namen.
+ *
+ * @param id Die ID des Zulieferers
+ * @param version Die Versionsnummer
+ * @param name Der Name des Zulieferers
+ */
+public record ZuliefererName(UUID id, int version, String name) {
+}
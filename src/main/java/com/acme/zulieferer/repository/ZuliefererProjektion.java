@@ -0,0 +1,72 @@
+package com.acme.zulieferer.repository;
+
+import com.acme.zulieferer.entity.Geschaeftsfuehrer;
+import com.acme.zulieferer.entity.Zulieferer;
+import java.util.UUID;
+
+/**
+ * Projektion auf die Daten eines Zulieferers für Listen, z.B. für GET /rest und die GraphQL-Queries dieZulieferer
+ * und search. Gelesen werden nur ID, Version, Name und Emailadresse des Zulieferers sowie die Spalten des
+ * Geschaeftsfuehrers über einen Join. Es werden keine Entities geladen, d.h. der Persistenzkontext bleibt leer und
+ * der Geschaeftsfuehrer ist ein nicht verwaltetes Objekt.
+ *
+ * @param id Die ID des Zulieferers
+ * @param version Die Versionsnummer des Zulieferers
+ * @param name Der Name des Zulieferers
+ * @param email Die Emailadresse des Zulieferers
+ * @param geschaeftsfuehrer Der Geschaeftsfuehrer des Zulieferers
+ */
+public record ZuliefererProjektion(
+    UUID id,
+    int version,
+    String name,
+    String email,
+    Geschaeftsfuehrer geschaeftsfuehrer
+) {
+    /**
+     * Konstruktor für den Konstruktor-Ausdruck in JPQL bzw. der Criteria API mit den einzelnen Spalten des
+     * Geschaeftsfuehrers.
+     *
+     * @param id Die ID des Zulieferers
+     * @param version Die Versionsnummer des Zulieferers
+     * @param name Der Name des Zulieferers
+     * @param email Die Emailadresse des Zulieferers
+     * @param geschaeftsfuehrerId Die ID des Geschaeftsfuehrers
+     * @param geschaeftsfuehrerName Der Name des Geschaeftsfuehrers
+     * @param geschaeftsfuehrerEmail Die Emailadresse des Geschaeftsfuehrers
+     * @param gehalt Das Gehalt des Geschaeftsfuehrers
+     */
+    public ZuliefererProjektion(
+        final UUID id,
+        final int version,
+        final String name,
+        final String email,
+        final UUID geschaeftsfuehrerId,
+        final String geschaeftsfuehrerName,
+        final String geschaeftsfuehrerEmail,
+        final int gehalt
+    ) {
+        this(id, version, name, email, Geschaeftsfuehrer.builder()
+            .id(geschaeftsfuehrerId)
+            .name(geschaeftsfuehrerName)
+            .email(geschaeftsfuehrerEmail)
+            .gehalt(gehalt)
+            .build());
+    }
+
+    /**
+     * Projektion zu einem bereits geladenen Zulieferer einschließlich Geschaeftsfuehrer.
+     *
+     * @param zulieferer Der Zulieferer
+     * @return Die Projektion
+     */
+    public static ZuliefererProjektion of(final Zulieferer zulieferer) {
+        return new ZuliefererProjektion(
+            zulieferer.getId(),
+            zulieferer.getVersion(),
+            zulieferer.getName(),
+            zulieferer.getEmail(),
+            zulieferer.getGeschaeftsfuehrer()
+        );
+    }
+}
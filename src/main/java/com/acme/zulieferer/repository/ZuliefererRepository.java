@@ -4,16 +4,24 @@ import com.acme.zulieferer.entity.Zulieferer;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Repository;
 import static com.acme.zulieferer.entity.Zulieferer.GESCHAEFTSFUEHRER_GRAPH;
 import static com.acme.zulieferer.entity.Zulieferer.GESCHAEFTSFUEHRER_LIEFERUNG_GRAPH;
+import static org.hibernate.jpa.HibernateHints.HINT_CACHE_MODE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface ZuliefererRepository extends JpaRepository<Zulieferer, UUID>, JpaSpecificationExecutor<Zulieferer> {
@@ -32,6 +40,21 @@ public interface ZuliefererRepository extends JpaRepository<Zulieferer, UUID>, J
     @Override
     Optional<Zulieferer> findById(@NonNull UUID id);
 
+    /**
+     * Nur Versionsnummer und Zeitpunkt der letzten Änderung eines Zulieferers ermitteln, ohne die Entity zu laden.
+     * Die Abfrage liest eine Zeile über den Primärschlüssel und nutzt bewusst nicht den Query-Cache: der Cache ist
+     * lokal je Instanz und würde nach Änderungen durch andere Instanzen eine veraltete Version liefern.
+     *
+     * @param id ID des Zulieferers
+     * @return Optional mit Versionsnummer und Änderungszeitpunkt oder leeres Optional
+     */
+    @Query("""
+        SELECT new com.acme.zulieferer.repository.ZuliefererVersion(z.version, z.aktualisiert)
+        FROM   Zulieferer z
+        WHERE  z.id = :id
+        """)
+    Optional<ZuliefererVersion> findVersionById(UUID id);
+
     /**
      * Kunde einschließlich Umsätze anhand der ID suchen.
      *
@@ -47,6 +70,78 @@ public interface ZuliefererRepository extends JpaRepository<Zulieferer, UUID>, J
     @NonNull
     Optional<Zulieferer> findByIdFetchLieferung(UUID id);
 
+    /**
+     * Projektionen der Zulieferer zu mehreren IDs einschließlich Geschäftsführer mit einer einzigen Abfrage lesen.
+     *
+     * @param ids Die IDs der gesuchten Zulieferer
+     * @return Die gefundenen Zulieferer in beliebiger Reihenfolge
+     */
+    @Query("""
+        SELECT new com.acme.zulieferer.repository.ZuliefererProjektion(
+                   z.id, z.version, z.name, z.email, g.id, g.name, g.email, g.gehalt
+               )
+        FROM   Zulieferer z
+        JOIN   z.geschaeftsfuehrer g
+        WHERE  z.id IN :ids
+        """)
+    List<ZuliefererProjektion> findByIdIn(Collection<UUID> ids);
+
+    /**
+     * IDs der Zulieferer, deren Name oder Emailadresse einem Suchbegriff ähnlich ist oder ihn enthält, absteigend
+     * nach Ähnlichkeit sortiert. Die Abfrage setzt die PostgreSQL-Extension `pg_trgm` voraus und nutzt deren
+     * GIN-Indexe über `lower(name)` und `lower(email)`.
+     *
+     * @param teil Der Suchbegriff
+     * @param limit Maximale Anzahl an Treffern
+     * @return Die IDs der gefundenen Zulieferer
+     */
+    @Query(value = """
+        SELECT   z.id
+        FROM     zulieferer z
+        WHERE    lower(z.name) % lower(:teil)
+        OR       lower(z.email) % lower(:teil)
+        OR       lower(z.name) LIKE '%' || lower(:teil) || '%'
+        OR       lower(z.email) LIKE '%' || lower(:teil) || '%'
+        ORDER BY greatest(similarity(lower(z.name), lower(:teil)), similarity(lower(z.email), lower(:teil))) DESC,
+                 z.id
+        LIMIT    :limit
+        """, nativeQuery = true)
+    List<UUID> findIdsByAehnlichkeit(String teil, int limit);
+
+    /**
+     * IDs der Zulieferer, deren Name oder Emailadresse einen Suchbegriff enthält. Treffer mit dem Suchbegriff als
+     * Präfix des Namens und kürzere Namen werden zuerst geliefert. Die Abfrage ist portabel, z.B. für H2.
+     *
+     * @param teil Der Suchbegriff
+     * @param limit Maximale Anzahl an Treffern
+     * @return Die IDs der gefundenen Zulieferer
+     */
+    @Query("""
+        SELECT   z.id
+        FROM     Zulieferer z
+        WHERE    lower(z.name) LIKE concat('%', lower(:teil), '%')
+        OR       lower(z.email) LIKE concat('%', lower(:teil), '%')
+        ORDER BY CASE WHEN lower(z.name) LIKE concat(lower(:teil), '%') THEN 0 ELSE 1 END,
+                 length(z.name),
+                 z.id
+        """)
+    List<UUID> findIdsByTeilstring(String teil, Limit limit);
+
+    /**
+     * Die Lieferungen zu mehreren Zulieferern mit einer einzigen Abfrage ermitteln.
+     *
+     * @param ids IDs der Zulieferer
+     * @return Die Lieferungen jeweils mit der ID ihres Zulieferers, sortiert nach Zulieferer und Reihenfolge
+     */
+    @Query("""
+        SELECT   new com.acme.zulieferer.repository.ZuliefererLieferung(z.id, l)
+        FROM     Zulieferer z
+        JOIN     z.lieferungen l
+        WHERE    z.id IN :ids
+        ORDER BY z.id, index(l)
+        """)
+    List<ZuliefererLieferung> findLieferungenByZuliefererIds(Collection<UUID> ids);
+
     /**
      * Kunde zu gegebener Emailadresse aus der DB ermitteln.
      *
@@ -70,6 +165,78 @@ public interface ZuliefererRepository extends JpaRepository<Zulieferer, UUID>, J
     @SuppressWarnings("BooleanMethodNameMustStartWithQuestion")
     boolean existsByEmail(String email);
 
+    /**
+     * Welche der gegebenen Emailadressen gibt es bereits?
+     *
+     * @param emails Die zu prüfenden Emailadressen
+     * @return Die bereits vorhandenen Emailadressen
+     */
+    @Query("""
+        SELECT z.email
+        FROM   Zulieferer z
+        WHERE  z.email IN :emails
+        """)
+    Set<String> findEmailsByEmailIn(Collection<String> emails);
+
+    /**
+     * Welche der gegebenen Emailadressen haben bereits Geschäftsführer?
+     *
+     * @param emails Die zu prüfenden Emailadressen
+     * @return Die bereits vorhandenen Emailadressen
+     */
+    @Query("""
+        SELECT g.email
+        FROM   Geschaeftsfuehrer g
+        WHERE  g.email IN :emails
+        """)
+    Set<String> findGeschaeftsfuehrerEmailsByEmailIn(Collection<String> emails);
+
+    /**
+     * Alle Emailadressen als Stream lesen, z.B. um einen Filter zu füllen. Der Stream muss innerhalb einer
+     * Transaktion verarbeitet und danach geschlossen werden.
+     *
+     * @return Die Emailadressen
+     */
+    @Query("""
+        SELECT z.email
+        FROM   Zulieferer z
+        """)
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    Stream<String> findAllEmails();
+
+    /**
+     * ID, Versionsnummer und Name aller Zulieferer als Stream lesen, z.B. um einen Index zu füllen. Der Stream muss
+     * innerhalb einer Transaktion verarbeitet und danach geschlossen werden.
+     *
+     * @return Die Namen mit ID und Versionsnummer
+     */
+    @Query("""
+        SELECT new com.acme.zulieferer.repository.ZuliefererName(z.id, z.version, z.name)
+        FROM   Zulieferer z
+        """)
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    Stream<ZuliefererName> findAllNamen();
+
+    /**
+     * Alle Zulieferer mit Geschäftsführer als Stream lesen, z.B. für einen Export. Bei PostgreSQL wird wegen der
+     * Fetch Size ein serverseitiger Cursor verwendet. Die Zulieferer werden nicht in den 2nd-Level-Cache übernommen.
+     * Der Stream muss innerhalb einer Transaktion verarbeitet und danach geschlossen werden.
+     *
+     * @return Die Zulieferer sortiert nach der ID
+     */
+    @Query("""
+        SELECT z
+        FROM   Zulieferer z
+               JOIN FETCH z.geschaeftsfuehrer
+        ORDER BY z.id
+        """)
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HINT_CACHE_MODE, value = "IGNORE")
+    })
+    Stream<Zulieferer> streamAll();
+
     /**
      * Kunden anhand des Nachnamens suchen.
      *
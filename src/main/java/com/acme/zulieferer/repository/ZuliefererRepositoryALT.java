@@ -1,28 +1,81 @@
 package com.acme.zulieferer.repository;
 
+import com.acme.zulieferer.entity.Geschaeftsfuehrer;
+import com.acme.zulieferer.entity.Lieferung;
 import com.acme.zulieferer.entity.Zulieferer;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.stereotype.Repository;
+import org.springframework.dao.DuplicateKeyException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.OptionalInt;
+import java.util.Set;
 import java.util.UUID;
-import java.util.stream.IntStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
 import static com.acme.zulieferer.repository.DB.ZULIEFERER;
+import static java.lang.StringTemplate.STR;
 import static java.util.Collections.emptyList;
+import static java.util.Comparator.comparing;
 import static java.util.UUID.randomUUID;
+import static java.util.stream.Collectors.toCollection;
 
 /**
- * Repository für den DB-Zugriff bei Zulieferern.
- *
+ * Repository für Zulieferer im Hauptspeicher, z.B. für Lasttests oder Edge-Caches ohne PostgreSQL. Die Methoden
+ * entsprechen den Abfragen in {@link ZuliefererRepository}. Das Repository ist keine Spring-Bean, sondern wird bei
+ * Bedarf direkt erzeugt; die Services der Anwendung verwenden immer {@link ZuliefererRepository}.
+ * <p>
+ * Indexe:
+ * <ul>
+ *     <li>ID: Hash-Index, d.h. O(1)</li>
+ *     <li>Emailadresse: Hash-Index über die Emailadresse in Kleinbuchstaben, d.h. O(1) und eindeutig</li>
+ *     <li>Name: sortierter Index über den Namen in Kleinbuchstaben für die Suche nach einem Präfix</li>
+ * </ul>
+ * Lesende Zugriffe sind ohne Sperren. Schreibende Zugriffe sperren nur den Streifen ("Lock Striping") zur ID des
+ * Zulieferers; die Eindeutigkeit der Emailadresse wird atomar durch den Hash-Index garantiert und die IDs im
+ * Namensindex werden als unveränderliche Mengen ersetzt ("Copy-on-Write").
+ * <p>
+ * Gespeichert und geliefert werden Kopien einschließlich Geschäftsführer und Lieferungen. Ein gelesener Zulieferer
+ * kann deshalb geändert werden, ohne dass sich der gespeicherte Zustand oder die Indexe ändern; erst
+ * {@link #save(Zulieferer)} übernimmt die Änderungen, nachdem die Eindeutigkeit der Emailadresse geprüft ist. Zu
+ * jeder ID werden die zuletzt indexierten Schlüssel gespeichert, über die beim Ändern und Löschen die alten Einträge
+ * entfernt werden.
  */
-@Repository
 @Slf4j
 public class ZuliefererRepositoryALT {
+    private static final int ANZAHL_LOCKS = 64;
+
+    private final Map<UUID, Zulieferer> zuliefererById = new ConcurrentHashMap<>();
+
+    private final Map<String, UUID> idByEmail = new ConcurrentHashMap<>();
+
+    private final NavigableMap<String, Set<UUID>> idsByName = new ConcurrentSkipListMap<>();
+
+    // zuletzt indexierte Emailadresse und Name je ID; nur unter der Sperre zur ID geaendert
+    private final Map<UUID, Schluessel> schluesselById = new ConcurrentHashMap<>();
+
+    private final ReentrantLock[] locks = new ReentrantLock[ANZAHL_LOCKS];
+
+    private record Schluessel(String email, String name) {
+    }
+
+    /**
+     * Konstruktor, der die Indexe mit den Zulieferern aus {@link DB} füllt.
+     */
+    public ZuliefererRepositoryALT() {
+        for (int i = 0; i < ANZAHL_LOCKS; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        ZULIEFERER.forEach(this::save);
+        log.info("ZuliefererRepositoryALT: {} Zulieferer", zuliefererById.size());
+    }
 
     /**
      * Einen Zulieferer anhand seiner ID suchen.
@@ -32,9 +85,7 @@ public class ZuliefererRepositoryALT {
      */
     public Optional<Zulieferer> findById(final UUID id) {
         log.debug("findById: id={}", id);
-        final var result = ZULIEFERER.stream()
-            .filter(zulieferer -> Objects.equals(zulieferer.getId(), id))
-            .findFirst();
+        final var result = Optional.ofNullable(zuliefererById.get(id)).map(ZuliefererRepositoryALT::kopie);
         log.debug("findById: {}", result);
         return result;
     }
@@ -76,88 +127,206 @@ public class ZuliefererRepositoryALT {
     /**
      * Alle Zulieferer zurückgeben
      *
-     * @return Alle Zulieferer in der DB
+     * @return Kopien aller Zulieferer
      */
     public @NonNull Collection<Zulieferer> findAll() {
-        return ZULIEFERER;
+        return zuliefererById.values().stream().map(ZuliefererRepositoryALT::kopie).toList();
+    }
+
+    /**
+     * Anzahl der Zulieferer.
+     *
+     * @return Anzahl der Zulieferer
+     */
+    public long count() {
+        return zuliefererById.size();
     }
 
     /**
-     * Zulieferer zu gegebener Emailadresse aus der DB ermitteln.
+     * Zulieferer zu gegebener Emailadresse ermitteln. Groß- und Kleinschreibung wird nicht unterschieden.
      *
      * @param email Emailadresse für die Suche
      * @return Gefundener Zulieferer oder leeres Optional
      */
     public Optional<Zulieferer> findByEmail(final String email) {
         log.debug("findByEmail: {}", email);
-        final var result = ZULIEFERER.stream()
-            .filter(zulieferer -> Objects.equals(zulieferer.getEmail(), email))
-            .findFirst();
+        if (email == null) {
+            return Optional.empty();
+        }
+        final var id = idByEmail.get(email.toLowerCase(Locale.ROOT));
+        final var result = id == null ? Optional.<Zulieferer>empty() : findById(id);
         log.debug("findByEmail: {}", result);
         return result;
     }
 
     /**
-     * Zulieferer zu gegebenem Namen aus der DB ermitteln.
+     * Zulieferer, deren Name den gegebenen Teilstring enthält. Durchsucht werden nur die verschiedenen Namen im
+     * Index und nicht alle Zulieferer.
      *
      * @param name Name für die Suche
-     * @return Gefundener Zulieferer oder leeres Optional
+     * @return Die gefundenen Zulieferer sortiert nach der ID
      */
-    public @NonNull Collection<Zulieferer> findByName(final String name) {
+    public @NonNull Collection<Zulieferer> findByName(final CharSequence name) {
         log.debug("findByName: name={}", name);
-        final var result = ZULIEFERER.stream()
-            .filter(zulieferer -> zulieferer.getName().contains(name))
+        final var teil = name.toString().toLowerCase(Locale.ROOT);
+        final var result = idsByName.entrySet()
+            .stream()
+            .filter(entry -> entry.getKey().contains(teil))
+            .flatMap(entry -> entry.getValue().stream())
+            .map(zuliefererById::get)
+            .filter(Objects::nonNull)
+            .sorted(comparing(Zulieferer::getId))
+            .map(ZuliefererRepositoryALT::kopie)
             .toList();
-        log.debug("findByName: name={}", result);
+        log.debug("findByName: anzahl={}", result.size());
         return result;
     }
 
+    /**
+     * Abfrage, welche Namen es zu einem Präfix gibt. Über den sortierten Index werden nur die passenden Namen
+     * gelesen, d.h. O(log n + Anzahl Treffer).
+     *
+     * @param prefix Präfix des Namens
+     * @return Die passenden Namen sortiert
+     */
+    public @NonNull Collection<String> findNamenByPrefix(final String prefix) {
+        log.debug("findNamenByPrefix: prefix={}", prefix);
+        final var von = prefix.toLowerCase(Locale.ROOT);
+        return idsByName.subMap(von, true, STR."\{von}\{Character.MAX_VALUE}", false)
+            .values()
+            .stream()
+            .map(ids -> ids.stream().map(zuliefererById::get).filter(Objects::nonNull).findFirst())
+            .flatMap(Optional::stream)
+            .map(Zulieferer::getName)
+            .distinct()
+            .toList();
+    }
+
     /**
      * Abfrage, ob es einen Zulieferer mit gegebener Emailadresse gibt.
      *
      * @param email Emailadresse für die Suche
      * @return true, falls es einen solchen Zulieferer gibt, sonst false
      */
-    public boolean isEmailExisting(final String email) {
-        log.debug("isEmailExisting: email={}", email);
-        final var count = ZULIEFERER.stream()
-            .filter(zulieferer -> Objects.equals(zulieferer.getEmail(), email))
-            .count();
-        log.debug("isEmailExisting: count={}", count);
-        return count > 0L;
+    public boolean existsByEmail(final String email) {
+        log.debug("existsByEmail: email={}", email);
+        return email != null && idByEmail.containsKey(email.toLowerCase(Locale.ROOT));
     }
 
     /**
-     * Einen neuen Zulieferer anlegen.
+     * Einen neuen Zulieferer anlegen oder einen vorhandenen Zulieferer aktualisieren. Bei einem neuen Zulieferer
+     * ohne ID wird die ID generiert und im übergebenen Objekt gesetzt. Gespeichert wird eine Kopie.
      *
-     * @param zulieferer Das Objekt des neu anzulegenden Zulieferers.
-     * @return Der neu angelegte Zulieferer mit generierter ID
+     * @param zulieferer Das Objekt des neu anzulegenden oder zu aktualisierenden Zulieferers.
+     * @return Eine Kopie des gespeicherten Zulieferers
+     * @throws DuplicateKeyException Es gibt bereits einen anderen Zulieferer mit der Emailadresse.
      */
-    public @NonNull Zulieferer create(final @NonNull Zulieferer zulieferer) {
-        log.debug("create: {}", zulieferer);
-        zulieferer.setId(randomUUID());
-        ZULIEFERER.add(zulieferer);
-        log.debug("create: {}", zulieferer);
-        return zulieferer;
+    public @NonNull Zulieferer save(final @NonNull Zulieferer zulieferer) {
+        log.debug("save: {}", zulieferer);
+        if (zulieferer.getId() == null) {
+            zulieferer.setId(randomUUID());
+        }
+        final var id = zulieferer.getId();
+        final var neu = kopie(zulieferer);
+        final var email = neu.getEmail().toLowerCase(Locale.ROOT);
+        final var name = neu.getName().toLowerCase(Locale.ROOT);
+        final var lock = lock(id);
+        lock.lock();
+        try {
+            final var vorhandeneId = idByEmail.putIfAbsent(email, id);
+            if (vorhandeneId != null && !vorhandeneId.equals(id)) {
+                throw new DuplicateKeyException(STR."Die Emailadresse \{neu.getEmail()} existiert bereits");
+            }
+
+            // erst nach der Pruefung der Emailadresse speichern
+            zuliefererById.put(id, neu);
+            final var alt = schluesselById.put(id, new Schluessel(email, name));
+            if (alt != null) {
+                if (!alt.email().equals(email)) {
+                    idByEmail.remove(alt.email(), id);
+                }
+                if (!alt.name().equals(name)) {
+                    removeName(alt.name(), id);
+                }
+            }
+            addName(name, id);
+        } finally {
+            lock.unlock();
+        }
+        log.debug("save: {}", neu);
+        return kopie(neu);
     }
 
     /**
-     * Einen vorhandenen Zulieferer aktualisieren.
+     * Einen Zulieferer anhand seiner ID löschen.
      *
-     * @param zulieferer Das Objekt mit den neuen Daten
+     * @param id Die ID des zu löschenden Zulieferers
      */
-    public void update(final @NonNull Zulieferer zulieferer) {
-        log.debug("update: {}", zulieferer);
-        final OptionalInt index = IntStream
-            .range(0, ZULIEFERER.size())
-            .filter(i -> Objects.equals(ZULIEFERER.get(i).getId(), zulieferer.getId()))
-            .findFirst();
-        log.trace("update: index={}", index);
-        if (index.isEmpty()) {
-            return;
+    public void deleteById(final UUID id) {
+        log.debug("deleteById: id={}", id);
+        final var lock = lock(id);
+        lock.lock();
+        try {
+            zuliefererById.remove(id);
+            final var alt = schluesselById.remove(id);
+            if (alt == null) {
+                return;
+            }
+            idByEmail.remove(alt.email(), id);
+            removeName(alt.name(), id);
+        } finally {
+            lock.unlock();
         }
-        ZULIEFERER.set(index.getAsInt(), zulieferer);
-        log.debug("update: {}", zulieferer);
     }
-}
 
+    // Copy-on-Write: compute() der ConcurrentSkipListMap ist nur mit unveraenderlichen Werten atomar
+    private void addName(final String name, final UUID id) {
+        idsByName.compute(name, (key, ids) -> {
+            if (ids == null) {
+                return Set.of(id);
+            }
+            final var idsNeu = new HashSet<>(ids);
+            idsNeu.add(id);
+            return Set.copyOf(idsNeu);
+        });
+    }
+
+    private void removeName(final String name, final UUID id) {
+        idsByName.computeIfPresent(name, (key, ids) -> {
+            if (!ids.contains(id)) {
+                return ids;
+            }
+            final var idsNeu = new HashSet<>(ids);
+            idsNeu.remove(id);
+            return idsNeu.isEmpty() ? null : Set.copyOf(idsNeu);
+        });
+    }
+
+    // tiefe Kopie: weder gespeicherte noch gelieferte Objekte werden mit dem Aufrufer geteilt
+    private static Zulieferer kopie(final Zulieferer zulieferer) {
+        final var geschaeftsfuehrer = zulieferer.getGeschaeftsfuehrer();
+        final var lieferungen = zulieferer.getLieferungen();
+        return Zulieferer.builder()
+            .id(zulieferer.getId())
+            .version(zulieferer.getVersion())
+            .name(zulieferer.getName())
+            .email(zulieferer.getEmail())
+            .geschaeftsfuehrer(geschaeftsfuehrer == null ? null : Geschaeftsfuehrer.builder()
+                .id(geschaeftsfuehrer.getId())
+                .name(geschaeftsfuehrer.getName())
+                .email(geschaeftsfuehrer.getEmail())
+                .gehalt(geschaeftsfuehrer.getGehalt())
+                .build())
+            .lieferungen(lieferungen == null ? null : lieferungen.stream()
+                .map(lieferung -> new Lieferung(lieferung.getId(), lieferung.getArtikel()))
+                .collect(toCollection(ArrayList::new)))
+            .username(zulieferer.getUsername())
+            .erzeugt(zulieferer.getErzeugt())
+            .aktualisiert(zulieferer.getAktualisiert())
+            .build();
+    }
+
+    private ReentrantLock lock(final UUID id) {
+        return locks[Math.floorMod(id.hashCode(), ANZAHL_LOCKS)];
+    }
+}
@@ -0,0 +1,12 @@
+package com.acme.zulieferer.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Versionsnummer und Zeitpunkt der letzten Änderung eines Zulieferers für bedingte Requests.
+ *
+ * @param version Die Versionsnummer
+ * @param aktualisiert Zeitpunkt der letzten Änderung
+ */
+public record ZuliefererVersion(int version, LocalDateTime aktualisiert) {
+}
@@ -0,0 +1,127 @@
+package com.acme.zulieferer.rest;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Adaptives Limit für gleichzeitige Requests nach dem Gradienten-Verfahren: solange die aktuelle Antwortzeit nicht
+ * deutlich über dem langfristigen Mittel liegt, wächst das Limit um etwa die Wurzel des Limits; steigt die
+ * Antwortzeit, d.h. es bilden sich Warteschlangen z.B. vor dem Connection-Pool, sinkt das Limit proportional zum
+ * Gradienten. Bei einem Fehler durch Überlast wird das Limit multiplikativ verringert (AIMD).
+ */
+final class AdaptiveLimit {
+    // Mittelwert der Antwortzeiten ueber etwa 500 Requests
+    private static final double RTT_ALPHA = 2d / (500 + 1);
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double DROP_FAKTOR = 0.9;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double toleranz;
+
+    private final double glaettung;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private double limit;
+
+    private double langeRttNanos;
+
+    private int inflight;
+
+    AdaptiveLimit(
+        final int initialLimit,
+        final int minLimit,
+        final int maxLimit,
+        final double toleranz,
+        final double glaettung
+    ) {
+        limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.toleranz = toleranz;
+        this.glaettung = glaettung;
+    }
+
+    /**
+     * Einen Platz belegen, falls das Limit nicht erreicht ist.
+     *
+     * @param anteil Anteil des Limits, der genutzt werden darf, z.B. weniger als 1 für Requests ohne Priorität. Bei
+     *               einem Anteil kleiner 1 bleibt mindestens ein Platz für Requests mit Priorität frei.
+     * @return true, falls der Platz belegt wurde
+     */
+    boolean tryAcquire(final double anteil) {
+        lock.lock();
+        try {
+            final var erlaubt = anteil >= 1 ? limit : Math.min(limit - 1, limit * anteil);
+            if (inflight >= Math.max(1, erlaubt)) {
+                return false;
+            }
+            inflight++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Einen Platz freigeben und das Limit anpassen.
+     *
+     * @param rttNanos Antwortzeit des Requests in Nanosekunden
+     * @param ueberlast true, falls der Request wegen Überlast fehlgeschlagen ist
+     */
+    void release(final long rttNanos, final boolean ueberlast) {
+        lock.lock();
+        try {
+            final var ausgelastet = inflight * 2 >= limit;
+            inflight--;
+            if (ueberlast) {
+                limit = Math.max(minLimit, limit * DROP_FAKTOR);
+                return;
+            }
+            if (langeRttNanos == 0) {
+                langeRttNanos = rttNanos;
+                return;
+            }
+            langeRttNanos = langeRttNanos * (1 - RTT_ALPHA) + rttNanos * RTT_ALPHA;
+            final var gradient = Math.clamp(toleranz * langeRttNanos / Math.max(1, rttNanos), MIN_GRADIENT, 1);
+            final var neuesLimit = limit * gradient + Math.sqrt(limit);
+            // ohne Auslastung sagt die Antwortzeit nichts ueber ein hoeheres Limit aus
+            if (neuesLimit > limit && !ausgelastet) {
+                return;
+            }
+            limit = Math.clamp(limit * (1 - glaettung) + neuesLimit * glaettung, minLimit, maxLimit);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Das aktuelle Limit.
+     *
+     * @return Limit für gleichzeitige Requests
+     */
+    int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Die aktuell laufenden Requests.
+     *
+     * @return Anzahl laufender Requests
+     */
+    int getInflight() {
+        lock.lock();
+        try {
+            return inflight;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.acme.zulieferer.rest;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import static com.acme.zulieferer.rest.ZuliefererGetController.REST_PATH;
+import static java.lang.StringTemplate.STR;
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
+
+/**
+ * Begrenzt die gleichzeitigen Requests an die REST- und die GraphQL-Schnittstelle, bevor sie den Anwendungskern und
+ * den Connection-Pool erreichen. Bei Überlast werden Requests sofort abgelehnt, statt dass alle Requests in einen
+ * Timeout laufen:
+ * <ul>
+ *     <li>Je Ressource, d.h. Pfad-Muster wie `/rest/{id}`, gibt es ein {@link AdaptiveLimit}, das sich an den
+ *     gemessenen Antwortzeiten orientiert und das sich lesende und schreibende Requests teilen, z.B. `GET`, `PUT`
+ *     und `DELETE` auf `/rest/{id}`. Ist es erreicht, gibt es den Statuscode 503 mit `Retry-After`.</li>
+ *     <li>Je Client, d.h. Benutzername oder IP-Adresse, sind höchstens `app.limit.client` gleichzeitige Requests
+ *     erlaubt, sonst gibt es den Statuscode 429 mit `Retry-After`.</li>
+ *     <li>Lesende Requests dürfen nur den Anteil `1 - app.limit.reserve` des gemeinsamen Limits füllen, d.h. der
+ *     Rest ist für schreibende Requests derselben Ressource reserviert. Health Checks unter `/actuator` werden nicht
+ *     begrenzt.</li>
+ * </ul>
+ * Die Metriken sind `zulieferer.limit` und `zulieferer.limit.inflight` je Ressource sowie
+ * `zulieferer.limit.abgelehnt` mit den Tags `endpunkt`, d.h. Methode und Ressource, und `grund`. Streams mit
+ * Project Reactor werden nicht begrenzt.
+ */
+@Component
+@Slf4j
+class ConcurrencyLimiter implements HandlerInterceptor, WebMvcConfigurer {
+    private static final String PERMIT = STR."\{ConcurrencyLimiter.class.getName()}.permit";
+    private static final String ABGELEHNT_NAME = "zulieferer.limit.abgelehnt";
+    private static final String ENDPUNKT = "endpunkt";
+    private static final String RESSOURCE = "ressource";
+    private static final String GRUND = "grund";
+    private static final Set<String> LESEND = Set.of("GET", "HEAD", "OPTIONS");
+    private static final int SC_TOO_MANY_REQUESTS = 429;
+
+    private final MeterRegistry meterRegistry;
+
+    private final boolean enabled;
+
+    private final int initialLimit;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double toleranz;
+
+    private final double glaettung;
+
+    private final double anteilLesend;
+
+    private final int clientLimit;
+
+    private final String retryAfter;
+
+    // ein gemeinsames Limit je Ressource fuer alle HTTP-Methoden
+    private final Map<String, AdaptiveLimit> limits = new ConcurrentHashMap<>();
+
+    // Anzahl laufender Requests je Client; merge() und computeIfPresent() sind je Schluessel atomar
+    private final Map<String, Integer> clients = new ConcurrentHashMap<>();
+
+    private record Permit(String endpunkt, AdaptiveLimit limit, String client, long start) {
+    }
+
+    ConcurrencyLimiter(
+        final MeterRegistry meterRegistry,
+        @Value("${app.limit.enabled:true}") final boolean enabled,
+        @Value("${app.limit.initial:20}") final int initialLimit,
+        @Value("${app.limit.min:4}") final int minLimit,
+        @Value("${app.limit.max:200}") final int maxLimit,
+        @Value("${app.limit.toleranz:1.5}") final double toleranz,
+        @Value("${app.limit.glaettung:0.2}") final double glaettung,
+        @Value("${app.limit.reserve:0.1}") final double reserve,
+        @Value("${app.limit.client:32}") final int clientLimit,
+        @Value("${app.limit.retry-after:1s}") final Duration retryAfter
+    ) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.toleranz = toleranz;
+        this.glaettung = glaettung;
+        anteilLesend = 1 - reserve;
+        this.clientLimit = clientLimit;
+        this.retryAfter = String.valueOf(Math.max(1, retryAfter.toSeconds()));
+        log.info(
+            "ConcurrencyLimiter: enabled={}, initial={}, min={}, max={}, reserve={}, client={}",
+            enabled,
+            initialLimit,
+            minLimit,
+            maxLimit,
+            reserve,
+            clientLimit
+        );
+    }
+
+    // vor DbBulkhead: abgelehnte Requests sollen nicht erst auf einen Platz warten
+    @Override
+    public void addInterceptors(final InterceptorRegistry registry) {
+        if (enabled) {
+            registry.addInterceptor(this).addPathPatterns(STR."\{REST_PATH}/**", "/graphql").order(-1);
+        }
+    }
+
+    @Override
+    public boolean preHandle(
+        final HttpServletRequest request,
+        final HttpServletResponse response,
+        final Object handler
+    ) throws IOException {
+        // bei einem asynchronen Request wird preHandle() beim Dispatch nochmals aufgerufen
+        if (request.getAttribute(PERMIT) != null || isStream(handler)) {
+            return true;
+        }
+        final var pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern == null) {
+            return true;
+        }
+        final var ressource = pattern.toString();
+        final var endpunkt = STR."\{request.getMethod()} \{ressource}";
+        final var client = client(request);
+
+        final int anzahlClient = clients.merge(client, 1, Integer::sum);
+        if (anzahlClient > clientLimit) {
+            freigeben(client);
+            return ablehnen(response, endpunkt, "client", SC_TOO_MANY_REQUESTS);
+        }
+
+        final var limit = limits.computeIfAbsent(ressource, this::neuesLimit);
+        final var anteil = LESEND.contains(request.getMethod()) ? anteilLesend : 1;
+        if (!limit.tryAcquire(anteil)) {
+            freigeben(client);
+            return ablehnen(response, endpunkt, RESSOURCE, HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        }
+        request.setAttribute(PERMIT, new Permit(endpunkt, limit, client, System.nanoTime()));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(
+        final HttpServletRequest request,
+        final HttpServletResponse response,
+        final Object handler,
+        final Exception ex
+    ) {
+        if (request.getAttribute(PERMIT) instanceof Permit permit) {
+            request.removeAttribute(PERMIT);
+            final var rtt = System.nanoTime() - permit.start();
+            final var status = response.getStatus();
+            final var ueberlast = status == HttpServletResponse.SC_SERVICE_UNAVAILABLE
+                || status == HttpServletResponse.SC_GATEWAY_TIMEOUT
+                || ex instanceof CannotGetJdbcConnectionException
+                || ex instanceof TransientDataAccessResourceException;
+            permit.limit().release(rtt, ueberlast);
+            freigeben(permit.client());
+        }
+    }
+
+    private AdaptiveLimit neuesLimit(final String ressource) {
+        final var limit = new AdaptiveLimit(initialLimit, minLimit, maxLimit, toleranz, glaettung);
+        Gauge.builder("zulieferer.limit", limit, AdaptiveLimit::getLimit)
+            .description("Aktuelles Limit für gleichzeitige Requests")
+            .tag(RESSOURCE, ressource)
+            .register(meterRegistry);
+        Gauge.builder("zulieferer.limit.inflight", limit, AdaptiveLimit::getInflight)
+            .description("Aktuell laufende Requests")
+            .tag(RESSOURCE, ressource)
+            .register(meterRegistry);
+        return limit;
+    }
+
+    private boolean ablehnen(
+        final HttpServletResponse response,
+        final String endpunkt,
+        final String grund,
+        final int status
+    ) throws IOException {
+        log.debug("ablehnen: endpunkt={}, grund={}", endpunkt, grund);
+        meterRegistry.counter(ABGELEHNT_NAME, ENDPUNKT, endpunkt, GRUND, grund).increment();
+        response.setHeader(RETRY_AFTER, retryAfter);
+        response.sendError(status, "Zu viele gleichzeitige Requests");
+        return false;
+    }
+
+    private void freigeben(final String client) {
+        // der Zaehler wird entfernt, sobald der Client keine Requests mehr hat
+        clients.computeIfPresent(client, (key, anzahl) -> anzahl <= 1 ? null : anzahl - 1);
+    }
+
+    private static String client(final HttpServletRequest request) {
+        final var user = request.getRemoteUser();
+        return user == null ? request.getRemoteAddr() : user;
+    }
+
+    private static boolean isStream(final Object handler) {
+        return handler instanceof HandlerMethod handlerMethod
+            && Publisher.class.isAssignableFrom(handlerMethod.getReturnType().getParameterType());
+    }
+}
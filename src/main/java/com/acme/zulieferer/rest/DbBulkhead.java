@@ -0,0 +1,167 @@
+package com.acme.zulieferer.rest;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import static com.acme.zulieferer.rest.ZuliefererGetController.REST_PATH;
+import static java.lang.StringTemplate.STR;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
+
+/**
+ * Begrenzt je Endpunkt die Anzahl gleichzeitiger Requests, die auf die DB zugreifen. Mit virtuellen Threads gibt es
+ * sonst tausende Threads, die gleichzeitig auf eine Verbindung aus dem Pool warten; so warten sie stattdessen
+ * in der Reihenfolge ihres Eintreffens in der Anwendung. Wer nach `app.bulkhead.timeout` noch wartet, erhält den
+ * Statuscode 503 mit `Retry-After`.
+ * <p>
+ * Ein Endpunkt ist die HTTP-Methode mit dem Pfadmuster, z.B. `GET /rest/{id}`. Das Limit ist `app.bulkhead.default`
+ * bzw. der Wert unter `app.bulkhead.endpunkte`; 0 bedeutet ohne Begrenzung. Die Wartezeit ist die Metrik
+ * `zulieferer.bulkhead.wartezeit`.
+ * <p>
+ * Handler mit Project Reactor, d.h. Long-Polling und Server-Sent Events für `GET /rest/changes`, werden hier nicht
+ * begrenzt: ein Platz würde für die gesamte Wartezeit auf neue Änderungen belegt, obwohl dabei keine Verbindung
+ * gehalten wird. Ihre Lesezugriffe auf die DB begrenzt stattdessen
+ * {@link com.acme.zulieferer.service.ZuliefererAenderungService} mit demselben Timeout.
+ */
+@Component
+@Slf4j
+class DbBulkhead implements HandlerInterceptor, WebMvcConfigurer {
+    private static final String PERMIT = STR."\{DbBulkhead.class.getName()}.permit";
+    private static final String WARTEZEIT_NAME = "zulieferer.bulkhead.wartezeit";
+    private static final String ABGELEHNT_NAME = "zulieferer.bulkhead.abgelehnt";
+    private static final String ENDPUNKT = "endpunkt";
+
+    private final MeterRegistry meterRegistry;
+
+    private final int defaultLimit;
+
+    private final Duration timeout;
+
+    private final Map<String, Integer> limits;
+
+    private final Map<String, Semaphore> semaphores = new ConcurrentHashMap<>();
+
+    /**
+     * Aktueller Stand für einen Endpunkt.
+     *
+     * @param limit Maximale Anzahl gleichzeitiger Requests
+     * @param verfuegbar Anzahl freier Plätze
+     * @param wartend Geschätzte Anzahl wartender Requests
+     */
+    record Stand(int limit, int verfuegbar, int wartend) {
+    }
+
+    DbBulkhead(
+        final MeterRegistry meterRegistry,
+        final Environment environment,
+        @Value("${app.bulkhead.default:8}") final int defaultLimit,
+        @Value("${app.bulkhead.timeout:2s}") final Duration timeout
+    ) {
+        this.meterRegistry = meterRegistry;
+        this.defaultLimit = defaultLimit;
+        this.timeout = timeout;
+        limits = Binder.get(environment)
+            .bind("app.bulkhead.endpunkte", Bindable.mapOf(String.class, Integer.class))
+            .orElse(Map.of());
+        log.info("DbBulkhead: default={}, timeout={}, endpunkte={}", defaultLimit, timeout, limits);
+    }
+
+    @Override
+    public void addInterceptors(final InterceptorRegistry registry) {
+        registry.addInterceptor(this).addPathPatterns(STR."\{REST_PATH}/**", "/graphql");
+    }
+
+    @Override
+    public boolean preHandle(
+        final HttpServletRequest request,
+        final HttpServletResponse response,
+        final Object handler
+    ) throws IOException {
+        // bei einem asynchronen Request wird preHandle() beim Dispatch nochmals aufgerufen
+        if (request.getAttribute(PERMIT) != null || isStream(handler)) {
+            return true;
+        }
+        final var pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern == null) {
+            return true;
+        }
+        final var endpunkt = STR."\{request.getMethod()} \{pattern}";
+        final int limit = limits.getOrDefault(endpunkt, defaultLimit);
+        if (limit <= 0) {
+            return true;
+        }
+
+        final var semaphore = semaphores.computeIfAbsent(endpunkt, key -> new Semaphore(limit, true));
+        final var start = System.nanoTime();
+        boolean erhalten;
+        try {
+            erhalten = semaphore.tryAcquire(timeout.toMillis(), MILLISECONDS);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            erhalten = false;
+        }
+        meterRegistry.timer(WARTEZEIT_NAME, ENDPUNKT, endpunkt).record(System.nanoTime() - start, NANOSECONDS);
+
+        if (!erhalten) {
+            log.warn("preHandle: {} nach {} abgelehnt, wartend={}", endpunkt, timeout, semaphore.getQueueLength());
+            meterRegistry.counter(ABGELEHNT_NAME, ENDPUNKT, endpunkt).increment();
+            response.setHeader(RETRY_AFTER, String.valueOf(Math.max(1, timeout.toSeconds())));
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Zu viele gleichzeitige Requests");
+            return false;
+        }
+        request.setAttribute(PERMIT, semaphore);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(
+        final HttpServletRequest request,
+        final HttpServletResponse response,
+        final Object handler,
+        final Exception ex
+    ) {
+        if (request.getAttribute(PERMIT) instanceof Semaphore semaphore) {
+            request.removeAttribute(PERMIT);
+            semaphore.release();
+        }
+    }
+
+    /**
+     * Der aktuelle Stand aller bisher aufgerufenen Endpunkte.
+     *
+     * @return Stand je Endpunkt sortiert nach dem Endpunkt
+     */
+    Map<String, Stand> getStand() {
+        final var stand = new TreeMap<String, Stand>();
+        semaphores.forEach((endpunkt, semaphore) -> stand.put(endpunkt, new Stand(
+            limits.getOrDefault(endpunkt, defaultLimit),
+            semaphore.availablePermits(),
+            semaphore.getQueueLength()
+        )));
+        return stand;
+    }
+
+    private static boolean isStream(final Object handler) {
+        return handler instanceof HandlerMethod handlerMethod
+            && Publisher.class.isAssignableFrom(handlerMethod.getReturnType().getParameterType());
+    }
+}
@@ -0,0 +1,124 @@
+package com.acme.zulieferer.rest;
+
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+import static com.acme.zulieferer.rest.ZuliefererGetController.ID_PATTERN;
+import static com.acme.zulieferer.rest.ZuliefererGetController.NAMEN_PATH;
+import static com.acme.zulieferer.rest.ZuliefererGetController.REST_PATH;
+import static java.lang.StringTemplate.STR;
+
+/**
+ * Servlet-Filter, der die GET-Requests für {@link ZuliefererGetController} in einem eigenen Executor ausführt, um
+ * unter derselben Last virtuelle Threads mit einem Pool von Plattform-Threads zu vergleichen. Mit
+ * `app.threads.get-executor = virtual` gibt es je Request einen neuen virtuellen Thread, mit `platform` einen festen
+ * Pool mit `app.threads.platform-pool` Threads. Ohne die Property wird der Request wie bisher im Thread von Tomcat
+ * ausgeführt.
+ * <p>
+ * Der Thread von Tomcat wartet auf das Ende der Ausführung. An den Executor werden der Security Context und mit
+ * Context Propagation alle registrierten ThreadLocal-Werte übergeben, z.B. die aktuelle Observation mit Trace und
+ * MDC, damit die Metriken und Logs des ausführenden Threads dem Request zugeordnet bleiben. Der Filter läuft vor
+ * {@link StatementCountFilter}, damit die SQL-Anweisungen im ausführenden Thread gezählt werden. Die Auslastung
+ * des Executors gibt es als Metriken `executor.*` mit dem Tag `name=zulieferer.get`.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+@Slf4j
+class GetExecutorFilter extends OncePerRequestFilter {
+    private static final List<Pattern> GET_PATHS = List.of(
+        Pattern.compile(STR."\{REST_PATH}/?"),
+        Pattern.compile(STR."\{REST_PATH}/\{ID_PATTERN}"),
+        Pattern.compile(STR."\{REST_PATH}\{NAMEN_PATH}/[^/]+")
+    );
+
+    private final ExecutorService executor;
+
+    GetExecutorFilter(
+        final MeterRegistry meterRegistry,
+        @Value("${app.threads.get-executor:}") final String modus,
+        @Value("${app.threads.platform-pool:200}") final int platformPool
+    ) {
+        final ExecutorService threads = switch (modus.toLowerCase()) {
+            case "" -> null;
+            case "virtual" -> Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("get-", 0).factory());
+            case "platform" -> Executors.newFixedThreadPool(
+                platformPool,
+                Thread.ofPlatform().name("get-", 0).factory()
+            );
+            default -> throw new IllegalArgumentException(STR."Ungueltiger Executor fuer GET-Requests: \{modus}");
+        };
+        final var snapshotFactory = ContextSnapshotFactory.builder().build();
+        executor = threads == null
+            ? null
+            : new DelegatingSecurityContextExecutorService(ContextExecutorService.wrap(
+                ExecutorServiceMetrics.monitor(meterRegistry, threads, "zulieferer.get"),
+                snapshotFactory::captureAll
+            ));
+        log.info("GetExecutorFilter: modus={}, platformPool={}", modus.isEmpty() ? "tomcat" : modus, platformPool);
+    }
+
+    /**
+     * Den Executor beim Herunterfahren beenden.
+     */
+    @PreDestroy
+    void close() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(final HttpServletRequest request) {
+        if (executor == null || !"GET".equals(request.getMethod())) {
+            return true;
+        }
+        final var path = request.getRequestURI().substring(request.getContextPath().length());
+        return GET_PATHS.stream().noneMatch(pattern -> pattern.matcher(path).matches());
+    }
+
+    @Override
+    protected void doFilterInternal(
+        final HttpServletRequest request,
+        final HttpServletResponse response,
+        final FilterChain filterChain
+    ) throws ServletException, IOException {
+        final var future = executor.submit(() -> {
+            filterChain.doFilter(request, response);
+            return null;
+        });
+        try {
+            future.get();
+        } catch (final InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServletException(ex);
+        } catch (final ExecutionException ex) {
+            switch (ex.getCause()) {
+                case IOException cause -> throw cause;
+                case ServletException cause -> throw cause;
+                case RuntimeException cause -> throw cause;
+                case Error cause -> throw cause;
+                default -> throw new ServletException(ex.getCause());
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.acme.zulieferer.rest;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.hateoas.RepresentationModel;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import static org.springframework.hateoas.MediaTypes.HAL_JSON;
+
+/**
+ * Serialisiert ein Model mit demselben Converter für HAL-JSON, den Spring MVC für die Antworten verwendet. Dadurch
+ * sind die Bytes im {@link com.acme.zulieferer.service.ZuliefererResponseCache} identisch zu einer direkt
+ * serialisierten Antwort.
+ */
+@Component
+@RequiredArgsConstructor
+class HalSerializer {
+    private static final int INITIAL_SIZE = 2048;
+
+    private final ObjectProvider<RequestMappingHandlerAdapter> handlerAdapter;
+
+    private volatile HttpMessageConverter<Object> converter;
+
+    /**
+     * Ein Model als HAL-JSON serialisieren.
+     *
+     * @param model Das Model mit Links
+     * @return HAL-JSON als Bytes in UTF-8
+     */
+    byte[] serialize(final RepresentationModel<?> model) {
+        final var ausgabe = new ByteArrayOutputStream(INITIAL_SIZE);
+        final var headers = new HttpHeaders();
+        final var message = new HttpOutputMessage() {
+            @Override
+            public OutputStream getBody() {
+                return ausgabe;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        };
+        try {
+            getConverter(model).write(model, HAL_JSON, message);
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return ausgabe.toByteArray();
+    }
+
+    // Die Converter sind erst nach dem Start von Spring MVC vollstaendig, z.B. mit dem Converter von Spring HATEOAS
+    @SuppressWarnings("unchecked")
+    private HttpMessageConverter<Object> getConverter(final RepresentationModel<?> model) {
+        var halConverter = converter;
+        if (halConverter == null) {
+            halConverter = (HttpMessageConverter<Object>) handlerAdapter.getObject()
+                .getMessageConverters()
+                .stream()
+                .filter(candidate -> candidate.canWrite(model.getClass(), HAL_JSON))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Kein HttpMessageConverter fuer HAL-JSON"));
+            converter = halConverter;
+        }
+        return halConverter;
+    }
+}
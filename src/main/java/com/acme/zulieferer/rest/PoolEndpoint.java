@@ -0,0 +1,111 @@
+package com.acme.zulieferer.rest;
+
+import com.acme.zulieferer.repository.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Actuator-Endpoint `/actuator/pools` mit der aktuellen Auslastung der Connection-Pools und der Begrenzung je
+ * Endpunkt durch {@link DbBulkhead}.
+ */
+@Component
+@Endpoint(id = "pools")
+@RequiredArgsConstructor
+class PoolEndpoint {
+    private static final String ACQUIRE_NAME = "hikaricp.connections.acquire";
+
+    private final ObjectProvider<DataSource> dataSources;
+
+    private final DbBulkhead bulkhead;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Auslastung eines Connection-Pools.
+     *
+     * @param name Name des Pools
+     * @param aktiv Anzahl benutzter Verbindungen
+     * @param leerlauf Anzahl freier Verbindungen
+     * @param maximum Maximale Anzahl an Verbindungen
+     * @param wartend Anzahl der Threads, die auf eine Verbindung warten
+     * @param auslastung Anteil benutzter Verbindungen am Maximum
+     * @param wartezeitMittelMs Mittlere Wartezeit auf eine Verbindung in Millisekunden
+     * @param wartezeitMaxMs Maximale Wartezeit auf eine Verbindung im aktuellen Zeitfenster in Millisekunden
+     */
+    record Pool(
+        String name,
+        int aktiv,
+        int leerlauf,
+        int maximum,
+        int wartend,
+        double auslastung,
+        double wartezeitMittelMs,
+        double wartezeitMaxMs
+    ) {
+    }
+
+    /**
+     * Auslastung der Pools und Stand der Begrenzung je Endpunkt.
+     *
+     * @param pools Die Pools
+     * @param endpunkte Stand je Endpunkt
+     */
+    record Auslastung(List<Pool> pools, Map<String, DbBulkhead.Stand> endpunkte) {
+    }
+
+    /**
+     * Die aktuelle Auslastung ermitteln.
+     *
+     * @return Auslastung der Pools und Stand je Endpunkt
+     */
+    @ReadOperation
+    public Auslastung auslastung() {
+        final var pools = new LinkedHashMap<String, HikariDataSource>();
+        dataSources.orderedStream().forEach(dataSource -> {
+            if (dataSource instanceof ReplicaRoutingDataSource routingDataSource) {
+                routingDataSource.getPools().forEach(pool -> pools.putIfAbsent(pool.getPoolName(), pool));
+            } else if (dataSource instanceof HikariDataSource pool) {
+                pools.putIfAbsent(pool.getPoolName(), pool);
+            }
+        });
+        final var auslastung = pools.values()
+            .stream()
+            .map(this::pool)
+            .toList();
+        return new Auslastung(auslastung, bulkhead.getStand());
+    }
+
+    private Pool pool(final HikariDataSource dataSource) {
+        final var name = dataSource.getPoolName();
+        final var maximum = dataSource.getMaximumPoolSize();
+        final var timer = meterRegistry.find(ACQUIRE_NAME).tag("pool", name).timer();
+        final var mittel = timer == null ? 0 : timer.mean(MILLISECONDS);
+        final var max = timer == null ? 0 : timer.max(MILLISECONDS);
+        // Der Pool wird erst bei der ersten Verbindung gestartet
+        final var mxBean = dataSource.getHikariPoolMXBean();
+        if (mxBean == null) {
+            return new Pool(name, 0, 0, maximum, 0, 0, mittel, max);
+        }
+        final var aktiv = mxBean.getActiveConnections();
+        return new Pool(
+            name,
+            aktiv,
+            mxBean.getIdleConnections(),
+            maximum,
+            mxBean.getThreadsAwaitingConnection(),
+            maximum == 0 ? 0 : (double) aktiv / maximum,
+            mittel,
+            max
+        );
+    }
+}
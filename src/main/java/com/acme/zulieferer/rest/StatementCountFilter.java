@@ -0,0 +1,187 @@
+package com.acme.zulieferer.rest;
+
+import com.acme.zulieferer.repository.StatementCounter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import static com.acme.zulieferer.rest.ZuliefererGetController.REST_PATH;
+
+/**
+ * Servlet-Filter, der die SQL-Anweisungen je Request für die REST- und die GraphQL-Schnittstelle zählt und als
+ * Verteilung `zulieferer.http.statements` mit dem Tag `schnittstelle` veröffentlicht. Überschreitungen des Budgets
+ * und wiederholte Anweisungen (Verdacht auf N+1) werden protokolliert und gezählt.
+ * <p>
+ * Das Budget ist `app.statements.budget` bzw. der Wert unter `app.statements.endpunkte` für die HTTP-Methode mit dem
+ * Pfadmuster, z.B. `POST /rest/batch`; 0 bedeutet ohne Budget. Bei einem asynchronen Request, z.B. mit
+ * `StreamingResponseBody`, wird bis zum Ende des Requests gezählt, auch im Thread für den Response-Body.
+ */
+@Component
+@Slf4j
+class StatementCountFilter extends OncePerRequestFilter {
+    private static final String METRIC_NAME = "zulieferer.http.statements";
+    private static final String BUDGET_NAME = "zulieferer.http.statements.budget";
+    private static final String N_PLUS_ONE_NAME = "zulieferer.http.statements.nplus1";
+    private static final String SCHNITTSTELLE = "schnittstelle";
+    private static final String GRAPHQL_PATH = "/graphql";
+
+    private final StatementCounter statementCounter;
+
+    private final MeterRegistry meterRegistry;
+
+    private final int budget;
+
+    private final List<EndpunktBudget> endpunkte;
+
+    private record EndpunktBudget(String methode, PathPattern pattern, int budget) {
+    }
+
+    StatementCountFilter(
+        final StatementCounter statementCounter,
+        final MeterRegistry meterRegistry,
+        final Environment environment,
+        @Value("${app.statements.budget:20}") final int budget
+    ) {
+        this.statementCounter = statementCounter;
+        this.meterRegistry = meterRegistry;
+        this.budget = budget;
+        final var parser = new PathPatternParser();
+        endpunkte = Binder.get(environment)
+            .bind("app.statements.endpunkte", Bindable.mapOf(String.class, Integer.class))
+            .orElse(Map.of())
+            .entrySet()
+            .stream()
+            .map(entry -> {
+                // Schluessel: HTTP-Methode und Pfadmuster, durch ein Leerzeichen getrennt
+                final var teile = entry.getKey().strip().split("\\s+", 2);
+                return new EndpunktBudget(teile[0], parser.parse(teile[1]), entry.getValue());
+            })
+            .toList();
+        log.info("StatementCountFilter: budget={}, endpunkte={}", budget, endpunkte);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(final HttpServletRequest request) {
+        return schnittstelle(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(
+        final HttpServletRequest request,
+        final HttpServletResponse response,
+        final FilterChain filterChain
+    ) throws ServletException, IOException {
+        final var zaehler = statementCounter.start(budget(request));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            statementCounter.stop();
+            if (request.isAsyncStarted()) {
+                // onComplete() wird auch nach einem Fehler oder Timeout aufgerufen
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(final AsyncEvent event) {
+                        aufzeichnen(request, statementCounter.auswerten(zaehler));
+                    }
+
+                    @Override
+                    public void onTimeout(final AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(final AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(final AsyncEvent event) {
+                    }
+                });
+            } else {
+                aufzeichnen(request, statementCounter.auswerten(zaehler));
+            }
+        }
+    }
+
+    private int budget(final HttpServletRequest request) {
+        if (endpunkte.isEmpty()) {
+            return budget;
+        }
+        final var path = PathContainer.parsePath(pfad(request));
+        return endpunkte.stream()
+            .filter(endpunkt -> endpunkt.methode().equalsIgnoreCase(request.getMethod()))
+            .filter(endpunkt -> endpunkt.pattern().matches(path))
+            .findFirst()
+            .map(EndpunktBudget::budget)
+            .orElse(budget);
+    }
+
+    private void aufzeichnen(final HttpServletRequest request, final StatementCounter.Statistik statistik) {
+        final var schnittstelle = schnittstelle(request);
+        DistributionSummary.builder(METRIC_NAME)
+            .description("Anzahl der SQL-Anweisungen je Request")
+            .baseUnit("statements")
+            .tag(SCHNITTSTELLE, schnittstelle)
+            .publishPercentileHistogram()
+            .register(meterRegistry)
+            .record(statistik.anzahl());
+        pruefen(request, schnittstelle, statistik);
+    }
+
+    private void pruefen(
+        final HttpServletRequest request,
+        final String schnittstelle,
+        final StatementCounter.Statistik statistik
+    ) {
+        if (statistik.budgetUeberschritten()) {
+            meterRegistry.counter(BUDGET_NAME, SCHNITTSTELLE, schnittstelle).increment();
+            log.warn(
+                "Budget fuer SQL-Anweisungen ueberschritten: {} {} mit {} Anweisungen",
+                request.getMethod(),
+                request.getRequestURI(),
+                statistik.anzahl()
+            );
+        }
+        statistik.wiederholt().forEach((sql, anzahl) -> {
+            meterRegistry.counter(N_PLUS_ONE_NAME, SCHNITTSTELLE, schnittstelle).increment();
+            log.warn(
+                "Verdacht auf N+1: {} {} fuehrt {}x aus: {}",
+                request.getMethod(),
+                request.getRequestURI(),
+                anzahl,
+                sql
+            );
+        });
+    }
+
+    private static String pfad(final HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private static String schnittstelle(final HttpServletRequest request) {
+        final var path = pfad(request);
+        if (path.startsWith(GRAPHQL_PATH)) {
+            return "graphql";
+        }
+        if (path.startsWith(REST_PATH)) {
+            return "rest";
+        }
+        return null;
+    }
+}
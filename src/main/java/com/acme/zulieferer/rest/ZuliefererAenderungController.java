@@ -0,0 +1,116 @@
+package com.acme.zulieferer.rest;
+
+import com.acme.zulieferer.service.Aenderung;
+import com.acme.zulieferer.service.UeberlastException;
+import com.acme.zulieferer.service.ZuliefererAenderungService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import lombok.RequiredArgsConstructor;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.time.Duration;
+import java.util.List;
+import static com.acme.zulieferer.rest.ZuliefererGetController.REST_PATH;
+import static com.acme.zulieferer.rest.ZuliefererGetController.SIZE;
+import static com.acme.zulieferer.service.ZuliefererAenderungService.DEFAULT_SIZE;
+import static com.acme.zulieferer.service.ZuliefererAenderungService.MAX_SIZE;
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM_VALUE;
+
+/**
+ * Änderungs-Feed für Zulieferer: Clients lesen die Änderungen nach ihrem letzten Cursor, statt regelmäßig alle
+ * Zulieferer über `GET /rest` zu lesen. Der Cursor ist die laufende Nummer der zuletzt gelesenen Änderung.
+ */
+@RestController
+@RequestMapping(REST_PATH)
+@RequiredArgsConstructor
+@Slf4j
+public class ZuliefererAenderungController {
+    /**
+     * Pfad für den Änderungs-Feed.
+     */
+    public static final String CHANGES_PATH = "/changes";
+
+    /**
+     * Query Parameter für den Cursor, nach dem gelesen wird.
+     */
+    public static final String SINCE = "since";
+
+    /**
+     * Query Parameter für die maximale Wartezeit in Sekunden beim Long-Polling.
+     */
+    public static final String WAIT = "wait";
+
+    private static final Duration MAX_WAIT = Duration.ofSeconds(60);
+
+    private final ZuliefererAenderungService service;
+
+    /**
+     * Änderungen nach einem Cursor lesen. Mit `wait` wird bis zur ersten neuen Änderung gewartet, falls es noch
+     * keine gibt (Long-Polling).
+     *
+     * @param since Cursor, d.h. laufende Nummer der zuletzt gelesenen Änderung
+     * @param size Maximale Anzahl an Änderungen
+     * @param wait Maximale Wartezeit in Sekunden, höchstens 60
+     * @return Die Änderungen sortiert nach der laufenden Nummer oder eine leere Liste
+     */
+    @GetMapping(path = CHANGES_PATH, produces = APPLICATION_JSON_VALUE)
+    @Operation(summary = "Änderungen nach einem Cursor lesen, ggf. mit Long-Polling", tags = "Änderungen")
+    @ApiResponse(responseCode = "200", description = "Änderungen oder leere Liste nach dem Timeout")
+    Mono<List<Aenderung>> getAenderungen(
+        @RequestParam(name = SINCE, defaultValue = "0") final long since,
+        @RequestParam(name = SIZE, defaultValue = "0") final int size,
+        @RequestParam(name = WAIT, defaultValue = "0") final long wait
+    ) {
+        log.debug("getAenderungen: since={}, size={}, wait={}", since, size, wait);
+        final var timeout = Duration.ofSeconds(Math.clamp(wait, 0, MAX_WAIT.toSeconds()));
+        return service.warten(Math.max(since, 0), seitengroesse(size), timeout);
+    }
+
+    /**
+     * Änderungen nach einem Cursor als Server-Sent Events. Die ID eines Events ist der Cursor; nach einem Abbruch
+     * setzt der Browser mit dem Header `Last-Event-ID` automatisch fort.
+     *
+     * @param since Cursor, d.h. laufende Nummer der zuletzt gelesenen Änderung
+     * @param lastEventId Cursor aus dem Header `Last-Event-ID`, der Vorrang vor `since` hat
+     * @return Die Änderungen als Server-Sent Events
+     */
+    @GetMapping(path = CHANGES_PATH, produces = TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Änderungen nach einem Cursor als Server-Sent Events", tags = "Änderungen")
+    @ApiResponse(responseCode = "200", description = "Stream mit den Änderungen")
+    Flux<ServerSentEvent<Aenderung>> streamAenderungen(
+        @RequestParam(name = SINCE, defaultValue = "0") final long since,
+        @RequestHeader(name = "Last-Event-ID", required = false) final Long lastEventId
+    ) {
+        log.debug("streamAenderungen: since={}, lastEventId={}", since, lastEventId);
+        final var nach = lastEventId == null ? since : lastEventId;
+        return service.stream(Math.max(nach, 0))
+            .map(aenderung -> ServerSentEvent.builder(aenderung)
+                .id(String.valueOf(aenderung.nummer()))
+                .event(aenderung.art().name())
+                .build());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(SERVICE_UNAVAILABLE)
+    void onUeberlast(final UeberlastException ex, final HttpServletResponse response) {
+        log.debug("onUeberlast: {}", ex.getMessage());
+        response.setHeader(RETRY_AFTER, String.valueOf(Math.max(1, ex.getWartezeit().toSeconds())));
+    }
+
+    private static int seitengroesse(final int size) {
+        return size <= 0 ? DEFAULT_SIZE : Math.min(size, MAX_SIZE);
+    }
+}
@@ -0,0 +1,215 @@
+package com.acme.zulieferer.rest;
+
+import com.acme.zulieferer.entity.Lieferung;
+import com.acme.zulieferer.entity.Zulieferer;
+import com.acme.zulieferer.service.ZuliefererReadService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import static com.acme.zulieferer.rest.ZuliefererGetController.REST_PATH;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Comparator.comparingDouble;
+import static org.springframework.http.HttpHeaders.ACCEPT;
+import static org.springframework.http.HttpHeaders.CONTENT_DISPOSITION;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
+import static org.springframework.http.ResponseEntity.badRequest;
+import static org.springframework.http.ResponseEntity.ok;
+
+/**
+ * Export aller Zulieferer als NDJSON oder CSV. Die Zulieferer werden über einen DB-Cursor gelesen und direkt in den
+ * Response geschrieben, d.h. weder die Entities noch der Response-Body werden vollständig im Heap gehalten.
+ */
+@RestController
+@RequestMapping(REST_PATH)
+@RequiredArgsConstructor
+@Slf4j
+public class ZuliefererExportController {
+    /**
+     * Pfad für den Export.
+     */
+    public static final String EXPORT_PATH = "/export";
+
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", UTF_8);
+
+    private static final String FORMAT_CSV = "csv";
+
+    private static final String FORMAT_NDJSON = "ndjson";
+
+    private static final String CSV_HEADER =
+        "id,version,name,email,geschaeftsfuehrer_name,geschaeftsfuehrer_email,lieferungen\n";
+
+    private final ZuliefererReadService service;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Alle Zulieferer als NDJSON, d.h. ein JSON-Objekt pro Zeile, oder als CSV exportieren. Das Format ist der Query
+     * Parameter `format` (`ndjson` oder `csv`), sonst der passende MIME-Typ mit der höchsten Qualität im Header
+     * `Accept` und ansonsten NDJSON, z.B. bei `Accept: *&#47;*` oder ohne `Accept`. Bei CSV werden die Artikel der
+     * Lieferungen durch `|` getrennt.
+     *
+     * @param format Das gewünschte Format als Query Parameter
+     * @param accept Der Header `Accept`
+     * @return Der Response-Body, der beim Schreiben die Zulieferer aus der DB liest, oder Statuscode 400 bei einem
+     *      unbekannten Format
+     */
+    @GetMapping(EXPORT_PATH)
+    @Operation(summary = "Alle Zulieferer als NDJSON oder CSV exportieren", tags = "Export")
+    @ApiResponse(responseCode = "200", description = "Zulieferer exportiert")
+    @ApiResponse(responseCode = "400", description = "Unbekanntes Format")
+    public ResponseEntity<StreamingResponseBody> export(
+        @RequestParam(required = false) final String format,
+        @RequestHeader(name = ACCEPT, required = false) final String accept
+    ) {
+        log.debug("export: format={}, accept={}", format, accept);
+        final boolean csv;
+        if (format == null) {
+            csv = isCsvAccepted(accept);
+        } else if (FORMAT_CSV.equalsIgnoreCase(format)) {
+            csv = true;
+        } else if (FORMAT_NDJSON.equalsIgnoreCase(format)) {
+            csv = false;
+        } else {
+            return badRequest().build();
+        }
+        return csv ? exportCsv() : exportNdjson();
+    }
+
+    private ResponseEntity<StreamingResponseBody> exportNdjson() {
+        final StreamingResponseBody body = out -> {
+            try (var generator = objectMapper.getFactory().createGenerator(out)) {
+                // NDJSON: Zeilenumbruch statt Leerzeichen zwischen den JSON-Objekten
+                generator.setRootValueSeparator(null);
+                service.export((zulieferer, lieferungen) -> writeJson(generator, zulieferer, lieferungen));
+            }
+        };
+        return ok()
+            .contentType(APPLICATION_NDJSON)
+            .header(CONTENT_DISPOSITION, "attachment; filename=\"zulieferer.ndjson\"")
+            .body(body);
+    }
+
+    private ResponseEntity<StreamingResponseBody> exportCsv() {
+        final StreamingResponseBody body = out -> {
+            try (var writer = new BufferedWriter(new OutputStreamWriter(out, UTF_8))) {
+                writer.write(CSV_HEADER);
+                service.export((zulieferer, lieferungen) -> writeCsv(writer, zulieferer, lieferungen));
+            }
+        };
+        return ok()
+            .contentType(TEXT_CSV)
+            .header(CONTENT_DISPOSITION, "attachment; filename=\"zulieferer.csv\"")
+            .body(body);
+    }
+
+    // der MIME-Typ mit der hoechsten Qualitaet im Header Accept, der zu NDJSON oder CSV passt, entscheidet;
+    // bei gleicher Qualitaet die Reihenfolge und */* passt zu NDJSON
+    private static boolean isCsvAccepted(final String accept) {
+        if (accept == null || accept.isBlank()) {
+            return false;
+        }
+        final List<MediaType> mediaTypes;
+        try {
+            mediaTypes = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (final InvalidMediaTypeException ex) {
+            return false;
+        }
+        mediaTypes.sort(comparingDouble(MediaType::getQualityValue).reversed());
+        for (final var mediaType : mediaTypes) {
+            if (mediaType.includes(APPLICATION_NDJSON)) {
+                return false;
+            }
+            if (mediaType.includes(TEXT_CSV)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void writeJson(
+        final JsonGenerator generator,
+        final Zulieferer zulieferer,
+        final List<Lieferung> lieferungen
+    ) {
+        try {
+            generator.writeStartObject();
+            generator.writeStringField("id", zulieferer.getId().toString());
+            generator.writeNumberField("version", zulieferer.getVersion());
+            generator.writeStringField("name", zulieferer.getName());
+            generator.writeStringField("email", zulieferer.getEmail());
+            final var geschaeftsfuehrer = zulieferer.getGeschaeftsfuehrer();
+            if (geschaeftsfuehrer != null) {
+                generator.writeObjectFieldStart("geschaeftsfuehrer");
+                generator.writeStringField("name", geschaeftsfuehrer.getName());
+                generator.writeStringField("email", geschaeftsfuehrer.getEmail());
+                generator.writeEndObject();
+            }
+            generator.writeArrayFieldStart("lieferungen");
+            for (final var lieferung : lieferungen) {
+                generator.writeStartObject();
+                generator.writeStringField("artikel", lieferung.getArtikel());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static void writeCsv(final Writer writer, final Zulieferer zulieferer, final List<Lieferung> lieferungen) {
+        final var geschaeftsfuehrer = zulieferer.getGeschaeftsfuehrer();
+        final var artikel = lieferungen.stream()
+            .map(Lieferung::getArtikel)
+            .toList();
+        try {
+            writer.write(zulieferer.getId().toString());
+            writer.write(',');
+            writer.write(String.valueOf(zulieferer.getVersion()));
+            writer.write(',');
+            writer.write(csv(zulieferer.getName()));
+            writer.write(',');
+            writer.write(csv(zulieferer.getEmail()));
+            writer.write(',');
+            writer.write(geschaeftsfuehrer == null ? "" : csv(geschaeftsfuehrer.getName()));
+            writer.write(',');
+            writer.write(geschaeftsfuehrer == null ? "" : csv(geschaeftsfuehrer.getEmail()));
+            writer.write(',');
+            writer.write(csv(String.join("|", artikel)));
+            writer.write('\n');
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // RFC 4180: Felder mit Trennzeichen, Anfuehrungszeichen oder Zeilenumbruch werden in Anfuehrungszeichen gesetzt
+    private static String csv(final String wert) {
+        if (wert == null) {
+            return "";
+        }
+        if (wert.indexOf(',') < 0 && wert.indexOf('"') < 0 && wert.indexOf('\n') < 0 && wert.indexOf('\r') < 0) {
+            return wert;
+        }
+        return '"' + wert.replace("\"", "\"\"") + '"';
+    }
+}
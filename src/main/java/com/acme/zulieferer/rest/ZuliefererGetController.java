@@ -1,34 +1,58 @@
 package com.acme.zulieferer.rest;
 
+import com.acme.zulieferer.entity.Zulieferer;
+import com.acme.zulieferer.repository.ZuliefererProjektion;
 import com.acme.zulieferer.service.NotFoundException;
 import com.acme.zulieferer.service.ZuliefererReadService;
+import com.acme.zulieferer.service.ZuliefererResponseCache;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.IanaLinkRelations;
 import org.springframework.hateoas.Link;
 import org.springframework.hateoas.LinkRelation;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
-import java.util.Objects;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.util.UriComponentsBuilder;
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
-import java.util.Optional;
 import static com.acme.zulieferer.rest.ZuliefererGetController.REST_PATH;
+import static com.acme.zulieferer.service.ZuliefererReadService.DEFAULT_PAGE_SIZE;
 import static java.lang.StringTemplate.STR;
+import static org.springframework.hateoas.MediaTypes.HAL_JSON;
 import static org.springframework.hateoas.MediaTypes.HAL_JSON_VALUE;
+import static org.springframework.http.HttpHeaders.ACCEPT_ENCODING;
+import static org.springframework.http.HttpHeaders.CONTENT_ENCODING;
+import static org.springframework.http.HttpHeaders.IF_MODIFIED_SINCE;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
 import static org.springframework.http.HttpStatus.NOT_MODIFIED;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 import static org.springframework.http.ResponseEntity.ok;
 import static org.springframework.http.ResponseEntity.status;
 
@@ -51,62 +75,195 @@ public class ZuliefererGetController {
      */
     public static final String ID_PATTERN =
         "[\\dA-Fa-f]{8}-[\\dA-Fa-f]{4}-[\\dA-Fa-f]{4}-[\\dA-Fa-f]{4}-[\\dA-Fa-f]{12}";
+    /**
+     * Query Parameter für die ID, nach der eine Seite beginnt.
+     */
+    public static final String AFTER = "after";
+    /**
+     * Query Parameter für die ID, vor der eine Seite endet.
+     */
+    public static final String BEFORE = "before";
+    /**
+     * Query Parameter für die Seitengröße.
+     */
+    public static final String SIZE = "size";
+    /**
+     * Query Parameter für die unscharfe, nach Relevanz sortierte Suche.
+     */
+    public static final String Q = "q";
+    /**
+     * Pfad für die Autovervollständigung der Namen.
+     */
+    public static final String NAMEN_PATH = "/namen";
+    // Die Namen aendern sich selten: Browser und Proxies duerfen die Antwort kurz cachen
+    private static final Duration NAMEN_MAX_AGE = Duration.ofSeconds(10);
+    private static final String ID = "id";
+    private static final String GZIP = "gzip";
+    private static final String X_GZIP = "x-gzip";
+
     /**
      * Deklaration Service.
      */
     private final ZuliefererReadService service;
+    private final ZuliefererResponseCache responseCache;
+    private final HalSerializer halSerializer;
     private final UriHelper uriHelper;
 
     /**
-     * Suche alle der Zulieferer mit den richtigen Parametern in der DB.
+     * Suche seitenweise die Zulieferer mit den richtigen Parametern in der DB. Die Seiten werden über die ID gebildet
+     * und sind über die Links `next` und `prev` verkettet. Mit dem Query Parameter `q` wird stattdessen unscharf
+     * über Name und Emailadresse gesucht und die Treffer werden nach Relevanz sortiert.
      *
+     * @param queryParams Query Parameter mit den Suchkriterien
+     * @param q Suchbegriff für die unscharfe Suche
+     * @param after ID, nach der die Seite beginnt
+     * @param before ID, vor der die Seite endet
+     * @param size Gewünschte Seitengröße
+     * @param request Das Request-Objekt, um die Links zu erstellen
      * @return Gefundene Zulieferer nach Parametern.
      */
     @GetMapping(produces = HAL_JSON_VALUE)
     @Operation(summary = "Suche mit Query Parameter", tags = "Suchen")
     @ApiResponse(responseCode = "200", description = "Zulieferer gefunden")
     @ApiResponse(responseCode = "404", description = "Zulieferer nicht gefunden")
-    CollectionModel<ZuliefererModel> get(@RequestParam @NonNull final MultiValueMap<String, String> queryParams,
-                                         final HttpServletRequest request) {
-        log.debug("get: queryParams={}", queryParams);
+    CollectionModel<ZuliefererModel> get(
+        @RequestParam @NonNull final MultiValueMap<String, String> queryParams,
+        @RequestParam(name = Q, required = false) final String q,
+        @RequestParam(name = AFTER, required = false) final UUID after,
+        @RequestParam(name = BEFORE, required = false) final UUID before,
+        @RequestParam(name = SIZE, defaultValue = "0") final int size,
+        final HttpServletRequest request
+    ) {
+        log.debug("get: queryParams={}, after={}, before={}, size={}", queryParams, after, before, size);
+        if (q != null) {
+            return search(q, size, request);
+        }
 
-        final var baseUri = uriHelper.getBaseUri(request).toString();
-        final var models = service.find(queryParams)
+        final MultiValueMap<String, String> suchkriterien = new LinkedMultiValueMap<>(queryParams);
+        suchkriterien.remove(AFTER);
+        suchkriterien.remove(BEFORE);
+        suchkriterien.remove(SIZE);
+
+        final KeysetScrollPosition position;
+        if (after != null) {
+            position = ScrollPosition.forward(Map.of(ID, after));
+        } else if (before != null) {
+            position = ScrollPosition.backward(Map.of(ID, before));
+        } else {
+            position = ScrollPosition.keyset();
+        }
+
+        final var window = service.find(suchkriterien, position, size);
+        final var content = window.getContent();
+        final var lieferungen = service.findLieferungen(content.stream().map(ZuliefererProjektion::id).toList());
+        final var baseUri = uriHelper.getBaseUri(request);
+        final var models = content
             .stream()
             .map(zulieferer -> {
-                final var model = new ZuliefererModel(zulieferer);
-                model.add(Link.of(STR."\{baseUri}/\{zulieferer.getId()}"));
+                final var model = new ZuliefererModel(
+                    zulieferer,
+                    lieferungen.getOrDefault(zulieferer.id(), List.of())
+                );
+                model.add(Link.of(STR."\{baseUri}/\{zulieferer.id()}"));
                 return model;
             })
             .toList();
 
+        final var pageSize = size > 0 ? size : DEFAULT_PAGE_SIZE;
+        final var backward = after == null && before != null;
+        final List<Link> links = new ArrayList<>(2);
+        if (backward || window.hasNext()) {
+            final var last = content.getLast().id();
+            links.add(pageLink(baseUri, suchkriterien, AFTER, last, pageSize, IanaLinkRelations.NEXT));
+        }
+        if (backward ? window.hasNext() : after != null) {
+            final var first = content.getFirst().id();
+            links.add(pageLink(baseUri, suchkriterien, BEFORE, first, pageSize, IanaLinkRelations.PREV));
+        }
+
         log.debug("get: {}", models);
-        return CollectionModel.of(models);
+        return CollectionModel.of(models, links);
     }
 
     /**
-     * Suche anhand der Zulieferer-ID als Pfad-Parameter.
+     * Suche anhand der Zulieferer-ID als Pfad-Parameter. Zunächst werden nur Versionsnummer und Änderungszeitpunkt
+     * von der primären Datenbank gelesen: für bedingte Requests mit `If-None-Match` oder `If-Modified-Since` wird
+     * ggf. sofort der Statuscode 304 geliefert, und sonst wird das serialisierte HAL-JSON zu ID, Version und
+     * Basis-URI aus dem {@link ZuliefererResponseCache} geliefert. Nur bei einem Fehlschlag wird die Entity in dieser
+     * Version geladen und serialisiert. Akzeptiert der Client gzip laut `Accept-Encoding` mit einem q-Wert größer 0,
+     * wird die bereits komprimierte Antwort mit einem schwachen ETag geliefert.
      *
      * @param id ID des zu suchenden Zulieferers
-     * @return Gefundener Zulieferer.
+     * @param webRequest Der Request für die Auswertung von `If-None-Match` und `If-Modified-Since`
+     * @param request Das Request-Objekt, um die Links zu erstellen
+     * @return Gefundener Zulieferer als HAL-JSON.
      */
     @GetMapping(path = "{id:" + ID_PATTERN + "}", produces = HAL_JSON_VALUE)
     @Operation(summary = "Suche mit der Zulieferer-ID", tags = "Suchen")
-    @ApiResponse(responseCode = "200", description = "Zulieferer gefunden")
+    @ApiResponse(
+        responseCode = "200",
+        description = "Zulieferer gefunden",
+        content = @Content(mediaType = HAL_JSON_VALUE, schema = @Schema(implementation = ZuliefererModel.class))
+    )
+    @ApiResponse(responseCode = "304", description = "Zulieferer unverändert")
     @ApiResponse(responseCode = "404", description = "Zulieferer nicht gefunden")
-    ResponseEntity<ZuliefererModel> getById(@PathVariable final UUID id,
-                                            @RequestHeader("If-None-Match") final Optional<String> version,
-                                            final HttpServletRequest request) {
+    ResponseEntity<byte[]> getById(@PathVariable final UUID id,
+                                   final WebRequest webRequest,
+                                   final HttpServletRequest request) {
         log.debug("getById: id={}", id);
 
-        final var zulieferer = service.findById(id);
-        final var currentVersion = STR."\"\{zulieferer.getVersion()}\"";
-        if (Objects.equals(version.orElse(null), currentVersion)) {
-            return status(NOT_MODIFIED).build();
+        final var version = service.findVersion(id);
+        if (webRequest.getHeader(IF_NONE_MATCH) != null || webRequest.getHeader(IF_MODIFIED_SINCE) != null) {
+            final var etag = STR."\"\{version.version()}\"";
+            if (webRequest.checkNotModified(etag, toEpochMilli(version.aktualisiert()))) {
+                log.debug("getById: nicht geaendert, version={}", version);
+                return status(NOT_MODIFIED).eTag(etag).build();
+            }
         }
 
-        final var model = new ZuliefererModel(zulieferer);
         final var baseUri = uriHelper.getBaseUri(request).toString();
+        final var antwort = responseCache.get(id, version.version(), baseUri)
+            .orElseGet(() -> serialize(service.findById(id, version.version()), baseUri));
+
+        final var gzip = antwort.gzip() != null && acceptsGzip(request.getHeader(ACCEPT_ENCODING));
+        final var builder = ok()
+            .contentType(HAL_JSON)
+            .lastModified(toEpochMilli(antwort.aktualisiert()))
+            .varyBy(ACCEPT_ENCODING);
+        if (!gzip) {
+            return builder.eTag(STR."\"\{antwort.version()}\"").body(antwort.body());
+        }
+        // die Bytes sind je Content-Encoding verschieden, d.h. das ETag ist nur semantisch gleich
+        return builder
+            .eTag(STR."W/\"\{antwort.version()}\"")
+            .header(CONTENT_ENCODING, GZIP)
+            .body(antwort.gzip());
+    }
+
+    /**
+     * Namen zu einem Präfix für die Autovervollständigung suchen.
+     *
+     * @param prefix Präfix des Namens
+     * @param size Maximale Anzahl an Namen
+     * @return Die passenden Namen sortiert
+     */
+    @GetMapping(path = NAMEN_PATH + "/{prefix}", produces = APPLICATION_JSON_VALUE)
+    @Operation(summary = "Namen zu einem Präfix suchen", tags = "Suchen")
+    @ApiResponse(responseCode = "200", description = "Namen gefunden")
+    @ApiResponse(responseCode = "404", description = "Keine Namen gefunden")
+    ResponseEntity<List<String>> getNamenByPrefix(
+        @PathVariable final String prefix,
+        @RequestParam(name = SIZE, defaultValue = "0") final int size
+    ) {
+        log.debug("getNamenByPrefix: prefix={}, size={}", prefix, size);
+        final var namen = service.findNamenByPrefix(prefix, size);
+        return ok()
+            .cacheControl(CacheControl.maxAge(NAMEN_MAX_AGE))
+            .body(namen);
+    }
+
+    private ZuliefererResponseCache.Antwort serialize(final Zulieferer zulieferer, final String baseUri) {
+        final var model = new ZuliefererModel(zulieferer);
         final var idUri = STR."\{baseUri}/\{zulieferer.getId()}";
         final var selfLink = Link.of(idUri);
         final var listLink = Link.of(baseUri, LinkRelation.of("list"));
@@ -114,9 +271,92 @@ public class ZuliefererGetController {
         final var updateLink = Link.of(idUri, LinkRelation.of("update"));
         final var removeLink = Link.of(idUri, LinkRelation.of("remove"));
         model.add(selfLink, listLink, addLink, updateLink, removeLink);
+        log.debug("serialize: {}", model);
+        return responseCache.put(
+            zulieferer.getId(),
+            zulieferer.getVersion(),
+            zulieferer.getAktualisiert(),
+            baseUri,
+            halSerializer.serialize(model)
+        );
+    }
+
+    // Accept-Encoding gemaess RFC 9110: gzip oder ersatzweise * muss einen q-Wert groesser 0 haben, d.h. z.B.
+    // "gzip;q=0" oder "*;q=0" ohne gzip schliesst gzip aus
+    private static boolean acceptsGzip(final String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQ = null;
+        Double sternQ = null;
+        for (final var coding : acceptEncoding.split(",")) {
+            final var teile = coding.split(";");
+            final var name = teile[0].strip().toLowerCase(Locale.ROOT);
+            if (GZIP.equals(name) || X_GZIP.equals(name)) {
+                gzipQ = qWert(teile);
+            } else if ("*".equals(name)) {
+                sternQ = qWert(teile);
+            }
+        }
+        final var q = gzipQ == null ? sternQ : gzipQ;
+        return q != null && q > 0;
+    }
+
+    private static double qWert(final String[] teile) {
+        for (var i = 1; i < teile.length; i++) {
+            final var parameter = teile[i].strip();
+            if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).strip());
+                } catch (final NumberFormatException ex) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private static long toEpochMilli(final LocalDateTime zeitpunkt) {
+        return zeitpunkt == null ? -1 : zeitpunkt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private CollectionModel<ZuliefererModel> search(final String q, final int size, final HttpServletRequest request) {
+        log.debug("search: q={}, size={}", q, size);
+        final var dieZulieferer = service.search(q, size);
+        final var lieferungen = service.findLieferungen(
+            dieZulieferer.stream().map(ZuliefererProjektion::id).toList()
+        );
+        final var baseUri = uriHelper.getBaseUri(request);
+        final var models = dieZulieferer
+            .stream()
+            .map(zulieferer -> {
+                final var model = new ZuliefererModel(
+                    zulieferer,
+                    lieferungen.getOrDefault(zulieferer.id(), List.of())
+                );
+                model.add(Link.of(STR."\{baseUri}/\{zulieferer.id()}"));
+                return model;
+            })
+            .toList();
+        log.debug("search: {}", models);
+        return CollectionModel.of(models);
+    }
 
-        log.debug("getById: {}", model);
-        return ok().eTag(currentVersion).body(model);
+    private Link pageLink(
+        final URI baseUri,
+        final MultiValueMap<String, String> suchkriterien,
+        final String cursorParam,
+        final UUID cursor,
+        final int size,
+        final LinkRelation relation
+    ) {
+        final var href = UriComponentsBuilder.fromUri(baseUri)
+            .queryParams(suchkriterien)
+            .queryParam(cursorParam, cursor)
+            .queryParam(SIZE, size)
+            .encode()
+            .toUriString();
+        return Link.of(href, relation);
     }
 
     /**
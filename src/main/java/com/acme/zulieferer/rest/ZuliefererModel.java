@@ -3,6 +3,7 @@ package com.acme.zulieferer.rest;
 import com.acme.zulieferer.entity.Geschaeftsfuehrer;
 import com.acme.zulieferer.entity.Lieferung;
 import com.acme.zulieferer.entity.Zulieferer;
+import com.acme.zulieferer.repository.ZuliefererProjektion;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -32,4 +33,11 @@ public class ZuliefererModel extends RepresentationModel<ZuliefererModel> {
         lieferungen = zulieferer.getLieferungen();
         geschaeftsfuehrer = zulieferer.getGeschaeftsfuehrer();
     }
+
+    ZuliefererModel(final ZuliefererProjektion zulieferer, final List<Lieferung> lieferungen) {
+        name = zulieferer.name();
+        email = zulieferer.email();
+        this.lieferungen = lieferungen;
+        geschaeftsfuehrer = zulieferer.geschaeftsfuehrer();
+    }
 }
@@ -0,0 +1,67 @@
+package com.acme.zulieferer.rest;
+
+import com.acme.zulieferer.entity.ZuliefererAenderung;
+import com.acme.zulieferer.service.ZuliefererEreignis;
+import com.acme.zulieferer.service.ZuliefererEreignisService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import java.time.Duration;
+import java.util.List;
+import static com.acme.zulieferer.rest.ZuliefererGetController.REST_PATH;
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM_VALUE;
+
+/**
+ * Push-Kanal mit Server-Sent Events für neu angelegte, aktualisierte und gelöschte Zulieferer, damit z.B. Dashboards
+ * nicht mehr pollen müssen.
+ */
+@RestController
+@RequestMapping(REST_PATH)
+@RequiredArgsConstructor
+@Slf4j
+public class ZuliefererStreamController {
+    /**
+     * Pfad für den Stream.
+     */
+    public static final String STREAM_PATH = "/stream";
+
+    // Kommentar als Keep-Alive, damit Proxies eine Verbindung ohne Ereignisse nicht schliessen
+    private static final Duration KEEP_ALIVE = Duration.ofSeconds(15);
+
+    private final ZuliefererEreignisService service;
+
+    /**
+     * Ereignisse zu Zulieferern ab jetzt als Server-Sent Events. Der Event-Typ ist die Art der Änderung.
+     *
+     * @param arten Die gewünschten Arten, z.B. `CREATE`, oder keine Angabe für alle Ereignisse
+     * @param ueberlauf Verhalten bei einem vollen Puffer: `DROP_OLDEST`, `DROP_NEWEST` oder `LATEST`
+     * @return Die Ereignisse als Server-Sent Events
+     */
+    @GetMapping(path = STREAM_PATH, produces = TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Ereignisse zu Zulieferern als Server-Sent Events", tags = "Änderungen")
+    @ApiResponse(responseCode = "200", description = "Stream mit den Ereignissen")
+    Flux<ServerSentEvent<ZuliefererEreignis>> stream(
+        @RequestParam(name = "art", required = false) final List<ZuliefererAenderung.Art> arten,
+        @RequestParam(required = false) final ZuliefererEreignisService.Ueberlauf ueberlauf
+    ) {
+        log.debug("stream: arten={}, ueberlauf={}", arten, ueberlauf);
+        final var ereignisse = service.abonnieren(arten, ueberlauf)
+            .map(ereignis -> ServerSentEvent.builder(ereignis)
+                .event(ereignis.art().name())
+                .build());
+        final var keepAlive = Flux.interval(KEEP_ALIVE)
+            .map(n -> ServerSentEvent.<ZuliefererEreignis>builder()
+                .comment("keep-alive")
+                .build())
+            .onBackpressureDrop();
+        // Prefetch 1: gepuffert wird nur im Service gemaess der Strategie fuer den Ueberlauf
+        return Flux.merge(1, ereignisse, keepAlive);
+    }
+}
@@ -1,9 +1,15 @@
 package com.acme.zulieferer.rest;
 
+import com.acme.zulieferer.entity.Zulieferer;
+import com.acme.zulieferer.service.AnlegeErgebnis;
+import com.acme.zulieferer.service.BatchTooLargeException;
 import com.acme.zulieferer.service.ConstraintViolationsException;
 import com.acme.zulieferer.service.EmailExistsException;
 import com.acme.zulieferer.service.VersionOutdatedException;
 import com.acme.zulieferer.service.ZuliefererWriteService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import jakarta.servlet.http.HttpServletRequest;
@@ -14,7 +20,11 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import static java.lang.StringTemplate.STR;
@@ -22,11 +32,14 @@ import static com.acme.zulieferer.rest.ZuliefererGetController.ID_PATTERN;
 import static com.acme.zulieferer.rest.ZuliefererGetController.REST_PATH;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.NO_CONTENT;
+import static org.springframework.http.HttpStatus.PAYLOAD_TOO_LARGE;
 import static org.springframework.http.HttpStatus.PRECONDITION_FAILED;
 import static org.springframework.http.HttpStatus.PRECONDITION_REQUIRED;
 import static org.springframework.http.HttpStatus.UNPROCESSABLE_ENTITY;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
 import static org.springframework.http.ResponseEntity.created;
+import static org.springframework.http.ResponseEntity.ok;
 
 @Controller
 @RequestMapping(REST_PATH)
@@ -36,9 +49,11 @@ public class ZuliefererWriteController {
     @SuppressWarnings("TrailingComment")
     public static final String PROBLEM_PATH = "/problem/";
     private static final String VERSIONSNUMMER_FEHLT = "Versionsnummer fehlt";
+    private static final String BATCH_PATH = "batch";
     private final ZuliefererWriteService service;
     private final UriHelper uriHelper;
     private final ZuliefererMapper mapper;
+    private final ObjectMapper objectMapper;
 
     /**
      * Einen neuen Zulieferer-Datensatz anlegen.
@@ -64,6 +79,51 @@ public class ZuliefererWriteController {
         return created(location).build();
     }
 
+    /**
+     * Mehrere neue Zulieferer-Datensätze anlegen, die als JSON-Array im Request-Body übergeben werden.
+     *
+     * @param zuliefererDTOs Die Zuliefererobjekte aus dem eingegangenen Request-Body.
+     * @return Response mit Statuscode 200 und dem Ergebnis für jeden Zulieferer oder Statuscode 413 falls es mehr
+     *      als `app.batch.max-size` Zulieferer sind.
+     */
+    @PostMapping(path = BATCH_PATH, consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_JSON_VALUE)
+    @Operation(summary = "Mehrere neue Zulieferer anlegen", tags = "Neuanlegen")
+    @ApiResponse(responseCode = "200", description = "Ergebnis für jeden Zulieferer")
+    @ApiResponse(responseCode = "400", description = "Syntaktische Fehler im Request-Body")
+    @ApiResponse(responseCode = "413", description = "Zu viele Zulieferer")
+    ResponseEntity<List<AnlegeErgebnis>> postBatch(@RequestBody final List<ZuliefererDTO> zuliefererDTOs) {
+        log.debug("postBatch: anzahl={}", zuliefererDTOs.size());
+        final var dieZulieferer = zuliefererDTOs.stream().map(mapper::toZulieferer).toList();
+        return ok(service.createAll(dieZulieferer));
+    }
+
+    /**
+     * Mehrere neue Zulieferer-Datensätze anlegen, die als NDJSON, d.h. ein JSON-Objekt pro Zeile, übergeben werden.
+     * Es werden höchstens `app.batch.max-size` Zeilen und eine weitere Zeile gelesen, um eine Überschreitung zu
+     * erkennen.
+     *
+     * @param body Der Request-Body als Stream.
+     * @return Response mit Statuscode 200 und dem Ergebnis für jeden Zulieferer oder Statuscode 413 falls es mehr
+     *      als `app.batch.max-size` Zulieferer sind.
+     * @throws IOException Falls der Request-Body nicht gelesen werden kann.
+     */
+    @PostMapping(path = BATCH_PATH, consumes = APPLICATION_NDJSON_VALUE, produces = APPLICATION_JSON_VALUE)
+    @Operation(summary = "Mehrere neue Zulieferer als NDJSON anlegen", tags = "Neuanlegen")
+    @ApiResponse(responseCode = "200", description = "Ergebnis für jeden Zulieferer")
+    @ApiResponse(responseCode = "400", description = "Syntaktische Fehler im Request-Body")
+    @ApiResponse(responseCode = "413", description = "Zu viele Zulieferer")
+    ResponseEntity<List<AnlegeErgebnis>> postBatchNdjson(final InputStream body) throws IOException {
+        final var dieZulieferer = new ArrayList<Zulieferer>();
+        final var max = service.getMaxBatchSize();
+        try (MappingIterator<ZuliefererDTO> iterator = objectMapper.readerFor(ZuliefererDTO.class).readValues(body)) {
+            while (dieZulieferer.size() <= max && iterator.hasNextValue()) {
+                dieZulieferer.add(mapper.toZulieferer(iterator.nextValue()));
+            }
+        }
+        log.debug("postBatchNdjson: anzahl={}", dieZulieferer.size());
+        return ok(service.createAll(dieZulieferer));
+    }
+
     /**
      * Einen vorhandenen Zulieferer-Datensatz überschreiben.
      *
@@ -158,6 +218,15 @@ public class ZuliefererWriteController {
         return problemDetail;
     }
 
+    @ExceptionHandler
+    ProblemDetail onJsonProcessing(final JsonProcessingException ex, final HttpServletRequest request) {
+        log.debug("onJsonProcessing: {}", ex.getMessage());
+        final var problemDetail = ProblemDetail.forStatusAndDetail(BAD_REQUEST, ex.getOriginalMessage());
+        problemDetail.setType(URI.create(STR."\{PROBLEM_PATH}\{ProblemType.BAD_REQUEST.getValue()}"));
+        problemDetail.setInstance(URI.create(request.getRequestURL().toString()));
+        return problemDetail;
+    }
+
     @ExceptionHandler
     ProblemDetail onEmailExists(final EmailExistsException ex, final HttpServletRequest request) {
         log.debug("onEmailExists: {}", ex.getMessage());
@@ -167,6 +236,15 @@ public class ZuliefererWriteController {
         return problemDetail;
     }
 
+    @ExceptionHandler
+    ProblemDetail onBatchTooLarge(final BatchTooLargeException ex, final HttpServletRequest request) {
+        log.debug("onBatchTooLarge: {}", ex.getMessage());
+        final var problemDetail = ProblemDetail.forStatusAndDetail(PAYLOAD_TOO_LARGE, ex.getMessage());
+        problemDetail.setType(URI.create(STR."\{PROBLEM_PATH}\{ProblemType.BAD_REQUEST.getValue()}"));
+        problemDetail.setInstance(URI.create(request.getRequestURL().toString()));
+        return problemDetail;
+    }
+
     @ExceptionHandler
     ProblemDetail onVersionOutdated(
         final VersionOutdatedException ex, final HttpServletRequest request) {
@@ -0,0 +1,191 @@
+package com.acme.zulieferer.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeoutException;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * PasswordEncoder, der erfolgreiche Prüfungen für kurze Zeit speichert und die aufwändigen Prüfungen, z.B. mit
+ * argon2id und 16 MB Speicher je Prüfung, in einem beschränkten Pool ausführt. Bei HTTP Basic wird das Passwort mit
+ * jedem Request gesendet; ohne Cache würde jeder Request das Passwort-Hashing erneut durchlaufen.
+ * <p>
+ * Schlüssel im Cache ist ein HMAC-SHA256 aus gespeichertem Hashwert und Passwort mit einem zufälligen Schlüssel je
+ * Prozess, d.h. das Passwort wird nie gespeichert und ein geändertes Passwort ergibt einen neuen Schlüssel.
+ * Fehlgeschlagene Prüfungen werden nicht gespeichert. Sind alle Threads des Pools belegt und die Warteschlange voll,
+ * wird die Anmeldung sofort abgelehnt. Die Dauer einer Prüfung ist der Timer `zulieferer.login.pruefung` mit dem Tag
+ * `cache` (`treffer` oder `fehlschlag`).
+ */
+@Slf4j
+public final class CachingPasswordEncoder implements PasswordEncoder, AutoCloseable {
+    private static final String HMAC = "HmacSHA256";
+    private static final String TIMER_NAME = "zulieferer.login.pruefung";
+    private static final int KEY_LENGTH = 32;
+
+    private final PasswordEncoder delegate;
+
+    private final long ttlNanos;
+
+    private final int maxEintraege;
+
+    private final Duration timeout;
+
+    private final SecretKeySpec key;
+
+    private final ExecutorService executor;
+
+    // Schluessel: HMAC als Hex-String; Wert: Ablaufzeitpunkt gemaess System.nanoTime()
+    private final Map<String, Long> gueltig = new ConcurrentHashMap<>();
+
+    private final Timer treffer;
+
+    private final Timer fehlschlag;
+
+    /**
+     * Konstruktor mit dem eigentlichen PasswordEncoder und der Konfiguration.
+     *
+     * @param delegate Der eigentliche PasswordEncoder, z.B. für argon2id
+     * @param meterRegistry Registry für die Metriken
+     * @param ttl Dauer, für die eine erfolgreiche Prüfung gespeichert wird
+     * @param maxEintraege Maximale Anzahl gespeicherter Prüfungen
+     * @param threads Anzahl der Threads für die Prüfungen
+     * @param warteschlange Maximale Anzahl wartender Prüfungen
+     * @param timeout Maximale Wartezeit auf eine Prüfung
+     */
+    public CachingPasswordEncoder(
+        final PasswordEncoder delegate,
+        final MeterRegistry meterRegistry,
+        final Duration ttl,
+        final int maxEintraege,
+        final int threads,
+        final int warteschlange,
+        final Duration timeout
+    ) {
+        this.delegate = delegate;
+        ttlNanos = ttl.toNanos();
+        this.maxEintraege = maxEintraege;
+        this.timeout = timeout;
+        final var bytes = new byte[KEY_LENGTH];
+        new SecureRandom().nextBytes(bytes);
+        key = new SecretKeySpec(bytes, HMAC);
+
+        // Plattform-Threads: argon2 rechnet ohne Unterbrechung und wuerde die Carrier-Threads blockieren
+        final var pool = new ThreadPoolExecutor(
+            threads,
+            threads,
+            0,
+            SECONDS,
+            new ArrayBlockingQueue<>(warteschlange),
+            Thread.ofPlatform().name("login-", 0).daemon().factory()
+        );
+        executor = ExecutorServiceMetrics.monitor(meterRegistry, pool, "zulieferer.login");
+        treffer = Timer.builder(TIMER_NAME).tag("cache", "treffer").register(meterRegistry);
+        fehlschlag = Timer.builder(TIMER_NAME).tag("cache", "fehlschlag").register(meterRegistry);
+        log.info("CachingPasswordEncoder: ttl={}, threads={}, warteschlange={}", ttl, threads, warteschlange);
+    }
+
+    @Override
+    public String encode(final CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(final CharSequence rawPassword, final String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) {
+            return false;
+        }
+        final var start = System.nanoTime();
+        final var schluessel = hmac(rawPassword, encodedPassword);
+        final var ablauf = gueltig.get(schluessel);
+        if (ablauf != null && ablauf - start > 0) {
+            treffer.record(System.nanoTime() - start, NANOSECONDS);
+            return true;
+        }
+
+        final var ok = pruefen(rawPassword, encodedPassword);
+        final var ende = System.nanoTime();
+        fehlschlag.record(ende - start, NANOSECONDS);
+        if (ok) {
+            speichern(schluessel, ende + ttlNanos);
+        }
+        return ok;
+    }
+
+    @Override
+    public boolean upgradeEncoding(final String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private boolean pruefen(final CharSequence rawPassword, final String encodedPassword) {
+        final var passwort = rawPassword.toString();
+        final Future<Boolean> future;
+        try {
+            future = executor.submit(() -> delegate.matches(passwort, encodedPassword));
+        } catch (final RejectedExecutionException ex) {
+            log.warn("pruefen: zu viele gleichzeitige Anmeldungen");
+            throw new AuthenticationServiceException("Zu viele gleichzeitige Anmeldungen", ex);
+        }
+        try {
+            return future.get(timeout.toMillis(), MILLISECONDS);
+        } catch (final TimeoutException ex) {
+            future.cancel(true);
+            log.warn("pruefen: Timeout nach {}", timeout);
+            throw new AuthenticationServiceException("Zu viele gleichzeitige Anmeldungen", ex);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new AuthenticationServiceException("Anmeldung unterbrochen", ex);
+        } catch (final ExecutionException ex) {
+            throw new AuthenticationServiceException("Fehler bei der Pruefung des Passworts", ex.getCause());
+        }
+    }
+
+    private void speichern(final String schluessel, final long ablauf) {
+        if (gueltig.size() >= maxEintraege) {
+            final var jetzt = System.nanoTime();
+            gueltig.values().removeIf(zeitpunkt -> zeitpunkt - jetzt <= 0);
+            if (gueltig.size() >= maxEintraege) {
+                // nur erfolgreiche Pruefungen werden gespeichert: voll nur bei sehr vielen Benutzern
+                gueltig.clear();
+            }
+        }
+        gueltig.put(schluessel, ablauf);
+    }
+
+    private String hmac(final CharSequence rawPassword, final String encodedPassword) {
+        try {
+            final var mac = Mac.getInstance(HMAC);
+            mac.init(key);
+            mac.update(encodedPassword.getBytes(UTF_8));
+            mac.update((byte) 0);
+            return HexFormat.of().formatHex(mac.doFinal(rawPassword.toString().getBytes(UTF_8)));
+        } catch (final GeneralSecurityException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.acme.zulieferer.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import java.util.Arrays;
+
+/**
+ * Liest Benutzer mit Passwort und Rollen aus der Tabelle `login`. Die Rollen sind durch Komma getrennt, z.B.
+ * `ADMIN,ZULIEFERER`, und werden zu Authorities mit dem Präfix `ROLE_`.
+ */
+@Slf4j
+public final class LoginUserDetailsService implements UserDetailsService {
+    private static final String SQL = "SELECT username, password, rollen FROM login WHERE username = ?";
+
+    private final JdbcClient jdbcClient;
+
+    /**
+     * Konstruktor mit dem Zugriff auf die DB.
+     *
+     * @param jdbcClient JdbcClient für die Tabelle `login`
+     */
+    public LoginUserDetailsService(final JdbcClient jdbcClient) {
+        this.jdbcClient = jdbcClient;
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(final String username) {
+        log.debug("loadUserByUsername: username={}", username);
+        return jdbcClient.sql(SQL)
+            .param(username)
+            .query((resultSet, rowNum) -> User.withUsername(resultSet.getString("username"))
+                .password(resultSet.getString("password"))
+                .roles(rollen(resultSet.getString("rollen")))
+                .build())
+            .optional()
+            .orElseThrow(() -> new UsernameNotFoundException(username));
+    }
+
+    private static String[] rollen(final String rollen) {
+        if (rollen == null) {
+            return new String[0];
+        }
+        return Arrays.stream(rollen.split(","))
+            .map(String::strip)
+            .filter(rolle -> !rolle.isEmpty())
+            .toArray(String[]::new);
+    }
+}
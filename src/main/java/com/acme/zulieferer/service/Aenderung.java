@@ -0,0 +1,26 @@
+package com.acme.zulieferer.service;
+
+import com.acme.zulieferer.entity.ZuliefererAenderung;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Eine veröffentlichte Änderung an einem Zulieferer im Änderungs-Feed.
+ *
+ * @param nummer Laufende Nummer im Änderungs-Feed, die als Cursor für die nächste Abfrage dient
+ * @param id ID des geänderten Zulieferers
+ * @param art Art der Änderung
+ * @param version Version des Zulieferers nach der Änderung bzw. beim Löschen
+ * @param zeitpunkt Zeitpunkt der Änderung
+ */
+public record Aenderung(long nummer, UUID id, ZuliefererAenderung.Art art, int version, LocalDateTime zeitpunkt) {
+    static Aenderung of(final ZuliefererAenderung aenderung) {
+        return new Aenderung(
+            aenderung.getNummer(),
+            aenderung.getZuliefererId(),
+            aenderung.getArt(),
+            aenderung.getVersion(),
+            aenderung.getErzeugt()
+        );
+    }
+}
@@ -0,0 +1,172 @@
+package com.acme.zulieferer.service;
+
+import com.acme.zulieferer.entity.ZuliefererAenderung;
+import com.acme.zulieferer.repository.ZuliefererAenderungRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Relay für die Outbox: vergibt den noch nicht veröffentlichten Änderungen in Blöcken die laufenden Nummern und
+ * gibt die nummerierten Änderungen an {@link ZuliefererAenderungService} und {@link NamenIndex} sowie als Ereignisse
+ * an {@link ZuliefererEreignisService} weiter.
+ * <p>
+ * Das Relay läuft in einem eigenen virtuellen Thread. Es wird von {@link ZuliefererWriteService} nach dem Commit
+ * angestoßen und prüft außerdem periodisch die Outbox, z.B. für Änderungen anderer Instanzen oder nach einem
+ * Neustart. Veröffentlicht werden alle nummerierten Änderungen nach der zuletzt veröffentlichten Nummer, d.h. auch
+ * die von einer anderen Instanz nummerierten Änderungen.
+ */
+@Component
+@Slf4j
+class AenderungRelay {
+    private final ZuliefererAenderungRepository repo;
+
+    private final ZuliefererAenderungService aenderungService;
+
+    private final ZuliefererEreignisService ereignisService;
+
+    private final NamenIndex namenIndex;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+
+    private final long intervallMillis;
+
+    private final Semaphore signal = new Semaphore(0);
+
+    private volatile long letzteNummer;
+
+    private volatile Thread thread;
+
+    AenderungRelay(
+        final ZuliefererAenderungRepository repo,
+        final ZuliefererAenderungService aenderungService,
+        final ZuliefererEreignisService ereignisService,
+        final NamenIndex namenIndex,
+        final PlatformTransactionManager transactionManager,
+        @Value("${app.aenderungen.batch-size:100}") final int batchSize,
+        @Value("${app.aenderungen.intervall:1s}") final Duration intervall
+    ) {
+        this.repo = repo;
+        this.aenderungService = aenderungService;
+        this.ereignisService = ereignisService;
+        this.namenIndex = namenIndex;
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        intervallMillis = intervall.toMillis();
+    }
+
+    /**
+     * Das Relay ab der höchsten bereits vergebenen Nummer starten. Ältere Änderungen lesen die Clients aus der DB.
+     * Das Relay startet vor den übrigen Listenern, damit z.B. {@link NamenIndex} erst danach aus der DB liest.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void start() {
+        letzteNummer = repo.findMaxNummer().orElse(0L);
+        aenderungService.fortsetzenAb(letzteNummer);
+        thread = Thread.ofVirtual().name("aenderung-relay").start(this::laufen);
+        log.info("start: letzteNummer={}, batchSize={}, intervall={} ms", letzteNummer, batchSize, intervallMillis);
+    }
+
+    /**
+     * Das Relay beim Herunterfahren beenden.
+     */
+    @PreDestroy
+    public void stop() {
+        final var relay = thread;
+        if (relay != null) {
+            relay.interrupt();
+        }
+    }
+
+    /**
+     * Das Relay nach dem Commit der aktuellen Transaktion anstoßen, damit neue Änderungen sofort veröffentlicht
+     * werden.
+     */
+    void anstossen() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            signal.release();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                signal.release();
+            }
+        });
+    }
+
+    private void laufen() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                signal.tryAcquire(intervallMillis, MILLISECONDS);
+                // mehrere Signale waehrend eines Durchlaufs fuehren nur zu einem weiteren Durchlauf
+                signal.drainPermits();
+                nummerieren();
+                veroeffentlichen();
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (final RuntimeException ex) {
+                log.warn("laufen: {}", ex.getMessage(), ex);
+            }
+        }
+        log.debug("laufen: beendet");
+    }
+
+    private void nummerieren() {
+        Integer anzahl;
+        do {
+            anzahl = transactionTemplate.execute(status -> {
+                final var offen = repo.findByNummerIsNullOrderByIdAsc(Limit.of(batchSize));
+                if (offen.isEmpty()) {
+                    return 0;
+                }
+                // Die hoechste Nummer erst nach dem Sperren lesen: ein anderes Relay hat dann bereits committet
+                var nummer = repo.findMaxNummer().orElse(0L);
+                for (final ZuliefererAenderung aenderung : offen) {
+                    aenderung.setNummer(++nummer);
+                }
+                return offen.size();
+            });
+            log.trace("nummerieren: anzahl={}", anzahl);
+        } while (anzahl != null && anzahl == batchSize);
+    }
+
+    private void veroeffentlichen() {
+        var zeilen = lesen(letzteNummer);
+        while (!zeilen.isEmpty()) {
+            aenderungService.veroeffentlichen(zeilen.stream().map(Aenderung::of).toList());
+            ereignisService.veroeffentlichen(zeilen.stream().map(ZuliefererEreignis::of).toList());
+            namenIndex.aendern(zeilen);
+            letzteNummer = zeilen.getLast().getNummer();
+            log.debug("veroeffentlichen: anzahl={}, letzteNummer={}", zeilen.size(), letzteNummer);
+            if (zeilen.size() < batchSize) {
+                return;
+            }
+            zeilen = lesen(letzteNummer);
+        }
+    }
+
+    private List<ZuliefererAenderung> lesen(final long nach) {
+        final var zeilen = transactionTemplate.execute(status ->
+            repo.findByNummerGreaterThanOrderByNummerAsc(nach, Limit.of(batchSize))
+        );
+        return zeilen == null ? List.of() : zeilen;
+    }
+}
@@ -0,0 +1,21 @@
+package com.acme.zulieferer.service;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Ergebnis für einen einzelnen Zulieferer beim Neuanlegen mehrerer Zulieferer.
+ *
+ * @param index Position des Zulieferers in der Eingabe
+ * @param id Die generierte ID, falls der Zulieferer angelegt wurde
+ * @param fehler Die Fehlermeldungen, falls der Zulieferer nicht angelegt wurde
+ */
+public record AnlegeErgebnis(int index, UUID id, List<String> fehler) {
+    static AnlegeErgebnis angelegt(final int index, final UUID id) {
+        return new AnlegeErgebnis(index, id, null);
+    }
+
+    static AnlegeErgebnis fehlerhaft(final int index, final List<String> fehler) {
+        return new AnlegeErgebnis(index, null, fehler);
+    }
+}
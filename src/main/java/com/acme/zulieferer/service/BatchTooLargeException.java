@@ -0,0 +1,25 @@
+package com.acme.zulieferer.service;
+
+import lombok.Getter;
+
+@Getter
+public class BatchTooLargeException extends RuntimeException {
+    /**
+     * Anzahl der übergebenen Zulieferer.
+     */
+    private final int anzahl;
+
+    /**
+     * Maximale Anzahl an Zulieferern.
+     */
+    private final int max;
+
+    BatchTooLargeException(
+        @SuppressWarnings("ParameterHidesMemberVariable") final int anzahl,
+        @SuppressWarnings("ParameterHidesMemberVariable") final int max
+    ) {
+        super(STR."Es wurden mehr als \{max} Zulieferer uebergeben: \{anzahl}");
+        this.anzahl = anzahl;
+        this.max = max;
+    }
+}
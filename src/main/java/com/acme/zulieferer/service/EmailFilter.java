@@ -0,0 +1,109 @@
+package com.acme.zulieferer.service;
+
+import com.acme.zulieferer.repository.ZuliefererRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom-Filter für die vorhandenen Emailadressen der Zulieferer. Liefert {@link #mightContain(String)} den Wert
+ * `false`, dann gibt es die Emailadresse sicher nicht und die Abfrage an die DB kann entfallen. Bei `true` muss die DB
+ * gefragt werden, da der Filter falsch-positive Treffer hat und gelöschte Emailadressen nicht entfernt werden können.
+ * Die Eindeutigkeit garantiert in jedem Fall der Unique Index in der DB.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+class EmailFilter {
+    /**
+     * Erwartete Anzahl an Emailadressen.
+     */
+    private static final long ERWARTETE_ANZAHL = 1_000_000L;
+
+    /**
+     * Anzahl der Bits: ca. 1% falsch-positive Treffer bei der erwarteten Anzahl an Emailadressen.
+     */
+    private static final int ANZAHL_BITS = 9_585_059;
+
+    /**
+     * Anzahl der Hashfunktionen.
+     */
+    private static final int ANZAHL_HASHES = 7;
+
+    private final AtomicLongArray bits = new AtomicLongArray((ANZAHL_BITS >>> 6) + 1);
+
+    private final ZuliefererRepository repo;
+
+    /**
+     * Den Filter mit den Emailadressen aus der DB füllen.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void init() {
+        try (var emails = repo.findAllEmails()) {
+            emails.forEach(this::put);
+        }
+        log.info("init: Bloom-Filter fuer Emailadressen ist gefuellt (erwartete Anzahl: {})", ERWARTETE_ANZAHL);
+    }
+
+    /**
+     * Eine Emailadresse in den Filter aufnehmen.
+     *
+     * @param email Die Emailadresse
+     */
+    void put(final String email) {
+        if (email == null) {
+            return;
+        }
+        final var hash = hash(email);
+        final var h1 = (int) hash;
+        final var h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= ANZAHL_HASHES; i++) {
+            final var bit = Integer.remainderUnsigned(h1 + i * h2, ANZAHL_BITS);
+            final var index = bit >>> 6;
+            final var mask = 1L << bit;
+            long alt;
+            do {
+                alt = bits.get(index);
+            } while ((alt & mask) == 0 && !bits.compareAndSet(index, alt, alt | mask));
+        }
+    }
+
+    /**
+     * Kann es die Emailadresse bereits geben?
+     *
+     * @param email Die Emailadresse
+     * @return `false`, falls es die Emailadresse sicher nicht gibt, sonst `true`
+     */
+    boolean mightContain(final String email) {
+        if (email == null) {
+            return false;
+        }
+        final var hash = hash(email);
+        final var h1 = (int) hash;
+        final var h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= ANZAHL_HASHES; i++) {
+            final var bit = Integer.remainderUnsigned(h1 + i * h2, ANZAHL_BITS);
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 64-Bit FNV-1a: die beiden Haelften dienen als Basis fuer "double hashing"
+    @SuppressWarnings("MagicNumber")
+    private static long hash(final String email) {
+        long hash = 0xcbf29ce484222325L;
+        for (final byte b : email.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,163 @@
+package com.acme.zulieferer.service;
+
+import com.acme.zulieferer.entity.ZuliefererAenderung;
+import com.acme.zulieferer.repository.ZuliefererName;
+import com.acme.zulieferer.repository.ZuliefererRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import static com.acme.zulieferer.entity.ZuliefererAenderung.Art.DELETE;
+import static java.lang.StringTemplate.STR;
+
+/**
+ * Sortierter Index der Namen aller Zulieferer im Hauptspeicher für die Autovervollständigung. Die Suche nach einem
+ * Präfix ist ein Bereich im sortierten Index, d.h. O(log n + Anzahl Treffer) ohne Zugriff auf die DB.
+ * <p>
+ * Der Index wird beim Start aus der DB gefüllt und danach ausschließlich mit den Änderungen aus der Outbox
+ * aktualisiert, die {@link AenderungRelay} veröffentlicht, d.h. auch mit den Änderungen anderer Instanzen. Eigene
+ * Änderungen sind damit erst nach dem nächsten Durchlauf des Relays enthalten, das nach dem Commit angestoßen wird.
+ * Je Zulieferer werden die zuletzt indexierte Versionsnummer und der Name gespeichert: eine Änderung wird nur mit
+ * einer höheren Versionsnummer angewendet und eine Änderung des Namens ersetzt den alten Namen. Eine Änderung, die
+ * sowohl beim Füllen gelesen als auch vom Relay veröffentlicht wird, zählt also nur einmal. Änderungen, die vor dem
+ * Ende des Füllens veröffentlicht werden, werden erst danach angewendet.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+class NamenIndex {
+    // Schluessel: Name in Kleinbuchstaben; Wert: Name und Anzahl der Zulieferer mit diesem Namen
+    private final NavigableMap<String, Eintrag> namen = new ConcurrentSkipListMap<>();
+
+    // Schluessel: ID des Zulieferers; nur mit lock oder waehrend init() vor dem Anwenden der wartenden Aenderungen
+    private final Map<UUID, Stand> staende = new HashMap<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final ZuliefererRepository repo;
+
+    // Aenderungen, die vor dem Ende von init() veroeffentlicht werden; danach null
+    private List<ZuliefererAenderung> wartend = new ArrayList<>();
+
+    private record Eintrag(String name, int anzahl) {
+    }
+
+    private record Stand(int version, String name) {
+    }
+
+    /**
+     * Den Index mit den Namen aus der DB füllen. Das Relay wird vorher gestartet, damit keine Änderung zwischen dem
+     * Lesen und der Startposition des Relays verloren geht.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void init() {
+        // das Relay haengt bis zum Ende von init() nur an "wartend" an, d.h. "staende" wird hier allein benutzt
+        try (var dieNamen = repo.findAllNamen()) {
+            dieNamen.forEach(this::setzen);
+        }
+        lock.lock();
+        try {
+            log.debug("init: {} wartende Aenderungen", wartend.size());
+            wartend.forEach(this::anwenden);
+            wartend = null;
+        } finally {
+            lock.unlock();
+        }
+        log.info("init: {} verschiedene Namen im Index", namen.size());
+    }
+
+    /**
+     * Namen zu einem Präfix suchen. Groß- und Kleinschreibung wird nicht unterschieden.
+     *
+     * @param prefix Präfix des Namens
+     * @param limit Maximale Anzahl an Namen
+     * @return Die passenden Namen sortiert
+     */
+    List<String> findByPrefix(final String prefix, final int limit) {
+        final var von = prefix.toLowerCase(Locale.ROOT);
+        return namen.subMap(von, true, STR."\{von}\{Character.MAX_VALUE}", false)
+            .values()
+            .stream()
+            .limit(limit)
+            .map(Eintrag::name)
+            .toList();
+    }
+
+    /**
+     * Veröffentlichte Änderungen aus der Outbox in der Reihenfolge ihrer Nummern anwenden.
+     *
+     * @param aenderungen Die Änderungen
+     */
+    void aendern(final List<ZuliefererAenderung> aenderungen) {
+        lock.lock();
+        try {
+            if (wartend != null) {
+                wartend.addAll(aenderungen);
+                return;
+            }
+            aenderungen.forEach(this::anwenden);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void anwenden(final ZuliefererAenderung aenderung) {
+        final var id = aenderung.getZuliefererId();
+        if (aenderung.getArt() == DELETE) {
+            final var alt = staende.remove(id);
+            if (alt != null) {
+                removeName(alt.name());
+            }
+            return;
+        }
+        // Zeilen aus der Zeit vor V1.6 haben keinen Namen
+        if (aenderung.getName() != null) {
+            setzen(new ZuliefererName(id, aenderung.getVersion(), aenderung.getName()));
+        }
+    }
+
+    private void setzen(final ZuliefererName zuliefererName) {
+        final var alt = staende.get(zuliefererName.id());
+        if (alt != null && alt.version() >= zuliefererName.version()) {
+            return;
+        }
+        staende.put(zuliefererName.id(), new Stand(zuliefererName.version(), zuliefererName.name()));
+        if (alt != null) {
+            removeName(alt.name());
+        }
+        addName(zuliefererName.name());
+    }
+
+    // compute() der ConcurrentSkipListMap ist nur mit unveraenderlichen Werten atomar
+    private void addName(final String name) {
+        if (name == null) {
+            return;
+        }
+        namen.compute(
+            name.toLowerCase(Locale.ROOT),
+            (key, eintrag) -> eintrag == null ? new Eintrag(name, 1) : new Eintrag(eintrag.name(), eintrag.anzahl() + 1)
+        );
+    }
+
+    private void removeName(final String name) {
+        if (name == null) {
+            return;
+        }
+        namen.computeIfPresent(
+            name.toLowerCase(Locale.ROOT),
+            (key, eintrag) -> eintrag.anzahl() <= 1 ? null : new Eintrag(eintrag.name(), eintrag.anzahl() - 1)
+        );
+    }
+}
@@ -0,0 +1,109 @@
+package com.acme.zulieferer.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Component;
+import java.util.Collection;
+import java.util.Map;
+import static com.acme.zulieferer.repository.SpecificationBuilder.SUCHKRITERIEN;
+import static java.lang.StringTemplate.STR;
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Beobachtung ("Observation") aller öffentlichen Methoden von {@link ZuliefererReadService} und
+ * {@link ZuliefererWriteService}. Daraus entstehen ein Timer `zulieferer.service` mit Histogramm (siehe
+ * `management.metrics.distribution` in `application.yml`) und ein Span für das Tracing. Der Timer hat die Tags
+ * `methode`, `kriterium` und `ergebnis`; zusätzlich zählt `zulieferer.service.zeilen` die gelieferten Zeilen.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+class ServiceObservation {
+    /**
+     * Name der Observation bzw. des Timers.
+     */
+    static final String OBSERVATION_NAME = "zulieferer.service";
+
+    private static final String ZEILEN_NAME = "zulieferer.service.zeilen";
+    private static final String METHODE = "methode";
+    private static final String KRITERIUM = "kriterium";
+    private static final String ERGEBNIS = "ergebnis";
+
+    private final ObservationRegistry observationRegistry;
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("execution(public * com.acme.zulieferer.service.ZuliefererReadService.*(..)) || "
+        + "execution(public * com.acme.zulieferer.service.ZuliefererWriteService.*(..))")
+    Object observe(final ProceedingJoinPoint joinPoint) throws Throwable {
+        final var methode = joinPoint.getSignature().getName();
+        final var lesend = joinPoint.getTarget() instanceof ZuliefererReadService;
+        final var observation = Observation.createNotStarted(OBSERVATION_NAME, observationRegistry)
+            .contextualName(STR."zulieferer \{methode}")
+            .lowCardinalityKeyValue(METHODE, methode)
+            .lowCardinalityKeyValue(KRITERIUM, kriterium(joinPoint.getArgs()))
+            .start();
+        try (var ignored = observation.openScope()) {
+            final var result = joinPoint.proceed();
+            observation.lowCardinalityKeyValue(ERGEBNIS, lesend ? "found" : "ok");
+            final var zeilen = zeilen(result);
+            if (zeilen > 0) {
+                meterRegistry.counter(ZEILEN_NAME, METHODE, methode).increment(zeilen);
+            }
+            return result;
+        } catch (final Throwable ex) {
+            observation.lowCardinalityKeyValue(ERGEBNIS, ergebnis(ex));
+            observation.error(ex);
+            throw ex;
+        } finally {
+            observation.stop();
+        }
+    }
+
+    private static String kriterium(final Object[] args) {
+        for (final var arg : args) {
+            if (arg instanceof Map<?, ?> map) {
+                if (map.isEmpty()) {
+                    return "alle";
+                }
+                // unbekannte Query Parameter zusammenfassen, um die Anzahl der Zeitreihen zu begrenzen
+                return map.keySet()
+                    .stream()
+                    .map(key -> SUCHKRITERIEN.contains(key) ? key.toString() : "sonstige")
+                    .distinct()
+                    .sorted()
+                    .collect(joining("+"));
+            }
+        }
+        return "keine";
+    }
+
+    private static String ergebnis(final Throwable ex) {
+        if (ex instanceof NotFoundException) {
+            return "not-found";
+        }
+        if (ex instanceof EmailExistsException || ex instanceof VersionOutdatedException) {
+            return "conflict";
+        }
+        if (ex instanceof ConstraintViolationsException) {
+            return "invalid";
+        }
+        return "error";
+    }
+
+    private static int zeilen(final Object result) {
+        return switch (result) {
+            case null -> 0;
+            case Window<?> window -> window.size();
+            case Collection<?> collection -> collection.size();
+            case Map<?, ?> map -> map.size();
+            default -> 1;
+        };
+    }
+}
@@ -0,0 +1,19 @@
+package com.acme.zulieferer.service;
+
+import lombok.Getter;
+import java.time.Duration;
+
+import static java.lang.StringTemplate.STR;
+
+@Getter
+public class UeberlastException extends RuntimeException {
+    /**
+     * Wartezeit, nach der abgelehnt wurde, z.B. für `Retry-After`.
+     */
+    private final Duration wartezeit;
+
+    UeberlastException(final Duration wartezeit) {
+        super(STR."Zu viele gleichzeitige Abfragen, erneut versuchen nach \{wartezeit}");
+        this.wartezeit = wartezeit;
+    }
+}
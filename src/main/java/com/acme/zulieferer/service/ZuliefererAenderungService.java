@@ -0,0 +1,195 @@
+package com.acme.zulieferer.service;
+
+import com.acme.zulieferer.repository.ZuliefererAenderungRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static reactor.core.scheduler.Schedulers.boundedElastic;
+
+/**
+ * Änderungs-Feed für Zulieferer, damit Clients inkrementell synchronisieren können, statt alle Zulieferer erneut zu
+ * lesen. Die Änderungen stammen aus der Outbox und werden durch {@link AenderungRelay} veröffentlicht; die laufende
+ * Nummer einer Änderung ist der Cursor für die nächste Abfrage.
+ * <p>
+ * Die zuletzt veröffentlichten Änderungen werden im Hauptspeicher gehalten, damit Clients, die auf neue Änderungen
+ * warten, keine Änderung zwischen dem Lesen aus der DB und dem Warten verpassen.
+ * <p>
+ * Long-Polling und Streams warten die meiste Zeit ohne DB-Verbindung und werden deshalb nicht durch den Bulkhead für
+ * die Endpunkte begrenzt. Stattdessen sind ihre Lesezugriffe auf die DB hier auf `app.aenderungen.max-lesend`
+ * gleichzeitige Zugriffe begrenzt; wer nach `app.bulkhead.timeout` noch wartet, erhält eine
+ * {@link UeberlastException}.
+ */
+@Service
+@Slf4j
+public class ZuliefererAenderungService {
+    /**
+     * Default-Anzahl an Änderungen bei einer Abfrage.
+     */
+    public static final int DEFAULT_SIZE = 100;
+
+    /**
+     * Maximale Anzahl an Änderungen bei einer Abfrage.
+     */
+    public static final int MAX_SIZE = 1000;
+
+    // Anzahl der zuletzt veroeffentlichten Aenderungen im Hauptspeicher
+    private static final int REPLAY_SIZE = 1000;
+
+    // Puffer je Abonnent; bei einem Ueberlauf wird der Stream mit einem Fehler beendet und der Client setzt mit
+    // seinem letzten Cursor wieder auf
+    private static final int PUFFER_SIZE = 256;
+
+    // Wartezeit nach der ersten neuen Aenderung, um weitere Aenderungen in derselben Antwort zu buendeln
+    private static final Duration BUENDELN = Duration.ofMillis(100);
+
+    private final ZuliefererAenderungRepository repo;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Semaphore lesend;
+
+    private final Duration timeout;
+
+    private final Sinks.Many<Aenderung> sink = Sinks.many().replay().limit(REPLAY_SIZE);
+
+    private volatile long letzteNummer;
+
+    ZuliefererAenderungService(
+        final ZuliefererAenderungRepository repo,
+        final PlatformTransactionManager transactionManager,
+        @Value("${app.aenderungen.max-lesend:4}") final int maxLesend,
+        @Value("${app.bulkhead.timeout:2s}") final Duration timeout
+    ) {
+        this.repo = repo;
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        lesend = new Semaphore(maxLesend, true);
+        this.timeout = timeout;
+    }
+
+    /**
+     * Veröffentlichte Änderungen nach einem Cursor lesen.
+     *
+     * @param nach Cursor, d.h. laufende Nummer der zuletzt gelesenen Änderung
+     * @param size Maximale Anzahl an Änderungen
+     * @return Die Änderungen sortiert nach der laufenden Nummer
+     */
+    public List<Aenderung> find(final long nach, final int size) {
+        log.debug("find: nach={}, size={}", nach, size);
+        final var aenderungen = transactionTemplate.execute(status -> repo
+            .findByNummerGreaterThanOrderByNummerAsc(nach, Limit.of(size))
+            .stream()
+            .map(Aenderung::of)
+            .toList());
+        log.debug("find: anzahl={}", aenderungen == null ? 0 : aenderungen.size());
+        return aenderungen == null ? List.of() : aenderungen;
+    }
+
+    /**
+     * Long-Polling: Änderungen nach einem Cursor lesen und, falls es keine gibt, bis zu `wartezeit` auf neue
+     * Änderungen warten.
+     *
+     * @param nach Cursor, d.h. laufende Nummer der zuletzt gelesenen Änderung
+     * @param size Maximale Anzahl an Änderungen
+     * @param wartezeit Maximale Wartezeit auf neue Änderungen
+     * @return Die Änderungen sortiert nach der laufenden Nummer oder eine leere Liste nach dem Timeout; bei zu vielen
+     *      gleichzeitigen Lesezugriffen ein Fehler mit {@link UeberlastException}
+     */
+    public Mono<List<Aenderung>> warten(final long nach, final int size, final Duration wartezeit) {
+        return lesen(nach, size)
+            .flatMap(aenderungen -> aenderungen.isEmpty() && !wartezeit.isZero()
+                ? sink.asFlux()
+                    .filter(aenderung -> aenderung.nummer() > nach)
+                    .take(wartezeit)
+                    .bufferTimeout(size, BUENDELN)
+                    .next()
+                    .defaultIfEmpty(List.of())
+                : Mono.just(aenderungen));
+    }
+
+    /**
+     * Alle Änderungen nach einem Cursor als Stream: zuerst die Änderungen aus der DB und danach die neu
+     * veröffentlichten Änderungen.
+     *
+     * @param nach Cursor, d.h. laufende Nummer der zuletzt gelesenen Änderung
+     * @return Die Änderungen sortiert nach der laufenden Nummer
+     */
+    public Flux<Aenderung> stream(final long nach) {
+        return Flux.defer(() -> {
+            final var letzte = new AtomicLong(nach);
+            return nachholen(nach)
+                .concatWith(sink.asFlux().onBackpressureBuffer(PUFFER_SIZE))
+                .filter(aenderung -> aenderung.nummer() > letzte.get())
+                .doOnNext(aenderung -> letzte.set(aenderung.nummer()));
+        });
+    }
+
+    /**
+     * Nur die Änderungen, die ab jetzt veröffentlicht werden, als Stream.
+     *
+     * @return Die neuen Änderungen sortiert nach der laufenden Nummer
+     */
+    public Flux<Aenderung> stream() {
+        return Flux.defer(() -> stream(letzteNummer));
+    }
+
+    /**
+     * Die laufende Nummer der zuletzt veröffentlichten Änderung beim Start des Relays setzen.
+     *
+     * @param nummer Die höchste bereits vergebene Nummer
+     */
+    void fortsetzenAb(final long nummer) {
+        letzteNummer = nummer;
+    }
+
+    /**
+     * Vom Relay nummerierte Änderungen an die wartenden Clients und die Streams weitergeben.
+     *
+     * @param aenderungen Die Änderungen sortiert nach der laufenden Nummer
+     */
+    void veroeffentlichen(final List<Aenderung> aenderungen) {
+        aenderungen.forEach(aenderung -> {
+            final var result = sink.tryEmitNext(aenderung);
+            if (result.isFailure()) {
+                log.warn("veroeffentlichen: {} nicht veroeffentlicht: {}", aenderung.nummer(), result);
+            }
+            letzteNummer = aenderung.nummer();
+        });
+    }
+
+    private Flux<Aenderung> nachholen(final long nach) {
+        return seite(nach)
+            .expand(seite -> seite.size() < MAX_SIZE ? Mono.empty() : seite(seite.getLast().nummer()))
+            .flatMapIterable(seite -> seite);
+    }
+
+    private Mono<List<Aenderung>> seite(final long nach) {
+        return lesen(nach, MAX_SIZE);
+    }
+
+    // Der Thread aus boundedElastic wartet auf einen freien Platz, nicht der Thread des Requests
+    private Mono<List<Aenderung>> lesen(final long nach, final int size) {
+        return Mono.fromCallable(() -> {
+            if (!lesend.tryAcquire(timeout.toMillis(), MILLISECONDS)) {
+                log.warn("lesen: nach {} abgelehnt, wartend={}", timeout, lesend.getQueueLength());
+                throw new UeberlastException(timeout);
+            }
+            try {
+                return find(nach, size);
+            } finally {
+                lesend.release();
+            }
+        }).subscribeOn(boundedElastic());
+    }
+}
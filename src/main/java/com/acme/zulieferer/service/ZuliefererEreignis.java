@@ -0,0 +1,36 @@
+package com.acme.zulieferer.service;
+
+import com.acme.zulieferer.entity.ZuliefererAenderung;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Ereignis für einen neu angelegten, aktualisierten oder gelöschten Zulieferer, das {@link AenderungRelay} aus einer
+ * Zeile der Outbox erzeugt und an die Abonnenten von {@link ZuliefererEreignisService} sendet.
+ *
+ * @param art Art der Änderung
+ * @param id ID des Zulieferers
+ * @param version Version des Zulieferers nach der Änderung bzw. beim Löschen
+ * @param name Name des Zulieferers
+ * @param email Emailadresse des Zulieferers
+ * @param zeitpunkt Zeitpunkt der Änderung
+ */
+public record ZuliefererEreignis(
+    ZuliefererAenderung.Art art,
+    UUID id,
+    int version,
+    String name,
+    String email,
+    LocalDateTime zeitpunkt
+) {
+    static ZuliefererEreignis of(final ZuliefererAenderung aenderung) {
+        return new ZuliefererEreignis(
+            aenderung.getArt(),
+            aenderung.getZuliefererId(),
+            aenderung.getVersion(),
+            aenderung.getName(),
+            aenderung.getEmail(),
+            aenderung.getErzeugt()
+        );
+    }
+}
@@ -0,0 +1,129 @@
+package com.acme.zulieferer.service;
+
+import com.acme.zulieferer.entity.ZuliefererAenderung;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Push-Kanal für Ereignisse zu neu angelegten, aktualisierten und gelöschten Zulieferern, z.B. für Dashboards, die
+ * sonst regelmäßig pollen. Die Ereignisse veröffentlicht {@link AenderungRelay} aus der Outbox, d.h. für die
+ * Änderungen aller Instanzen und nicht nur für die Schreibzugriffe auf dieser Instanz. Sie werden nur im
+ * Hauptspeicher an die aktuellen Abonnenten verteilt; für eine lückenlose Synchronisation gibt es den Änderungs-Feed
+ * in {@link ZuliefererAenderungService}.
+ * <p>
+ * Ein langsamer Abonnent bremst weder die anderen Abonnenten noch das Relay: jeder Abonnent hat einen
+ * beschränkten Puffer, und bei einem Überlauf werden Ereignisse gemäß {@link Ueberlauf} verworfen. Die verworfenen
+ * Ereignisse zählt die Metrik `zulieferer.stream.verworfen`.
+ */
+@Service
+@Slf4j
+public class ZuliefererEreignisService {
+    /**
+     * Verhalten, wenn der Puffer eines Abonnenten voll ist.
+     */
+    public enum Ueberlauf {
+        /**
+         * Das älteste Ereignis im Puffer wird verworfen.
+         */
+        DROP_OLDEST,
+
+        /**
+         * Das neue Ereignis wird verworfen.
+         */
+        DROP_NEWEST,
+
+        /**
+         * Es wird nur das neueste Ereignis gepuffert, z.B. für eine Anzeige, die nur den aktuellen Stand benötigt.
+         */
+        LATEST
+    }
+
+    private static final String VERWORFEN_NAME = "zulieferer.stream.verworfen";
+
+    // Wartezeit, falls mehrere Threads gleichzeitig veroeffentlichen
+    private static final Duration EMIT_TIMEOUT = Duration.ofMillis(100);
+
+    // Jeder Abonnent fordert unbeschraenkt an und puffert selbst, d.h. der Sink muss nie auf einen Abonnenten warten
+    private final Sinks.Many<ZuliefererEreignis> sink = Sinks.many().multicast().directBestEffort();
+
+    private final int puffer;
+
+    private final Ueberlauf defaultUeberlauf;
+
+    private final Map<Ueberlauf, Counter> verworfen = new EnumMap<>(Ueberlauf.class);
+
+    ZuliefererEreignisService(
+        final MeterRegistry meterRegistry,
+        @Value("${app.stream.puffer:256}") final int puffer,
+        @Value("${app.stream.ueberlauf:DROP_OLDEST}") final Ueberlauf defaultUeberlauf
+    ) {
+        this.puffer = puffer;
+        this.defaultUeberlauf = defaultUeberlauf;
+        for (final var ueberlauf : Ueberlauf.values()) {
+            verworfen.put(ueberlauf, meterRegistry.counter(VERWORFEN_NAME, "ueberlauf", ueberlauf.name()));
+        }
+        Gauge.builder("zulieferer.stream.abonnenten", sink, Sinks.Many::currentSubscriberCount)
+            .description("Anzahl der Abonnenten für Ereignisse zu Zulieferern")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Die Ereignisse ab jetzt abonnieren.
+     *
+     * @param arten Die gewünschten Arten von Ereignissen oder eine leere Collection für alle Ereignisse
+     * @param ueberlauf Verhalten bei einem vollen Puffer oder null für den konfigurierten Default
+     * @return Die Ereignisse in der Reihenfolge der Veröffentlichung
+     */
+    public Flux<ZuliefererEreignis> abonnieren(
+        final Collection<ZuliefererAenderung.Art> arten,
+        final Ueberlauf ueberlauf
+    ) {
+        final var strategie = ueberlauf == null ? defaultUeberlauf : ueberlauf;
+        log.debug("abonnieren: arten={}, ueberlauf={}", arten, strategie);
+        final var counter = verworfen.get(strategie);
+        final var ereignisse = sink.asFlux()
+            .filter(ereignis -> arten == null || arten.isEmpty() || arten.contains(ereignis.art()));
+        return switch (strategie) {
+            case DROP_OLDEST -> ereignisse.onBackpressureBuffer(
+                puffer,
+                ereignis -> counter.increment(),
+                BufferOverflowStrategy.DROP_OLDEST
+            );
+            case DROP_NEWEST -> ereignisse.onBackpressureBuffer(
+                puffer,
+                ereignis -> counter.increment(),
+                BufferOverflowStrategy.DROP_LATEST
+            );
+            // onBackpressureLatest ersetzt das gepufferte Ereignis und verwirft das alte ueber den Discard-Hook
+            case LATEST -> ereignisse
+                .onBackpressureLatest()
+                .doOnDiscard(ZuliefererEreignis.class, ereignis -> counter.increment());
+        };
+    }
+
+    /**
+     * Ereignisse zu veröffentlichten Änderungen aus der Outbox an die Abonnenten senden.
+     *
+     * @param ereignisse Die Ereignisse sortiert nach der laufenden Nummer der Änderungen
+     */
+    void veroeffentlichen(final List<ZuliefererEreignis> ereignisse) {
+        ereignisse.forEach(this::senden);
+    }
+
+    private void senden(final ZuliefererEreignis ereignis) {
+        log.trace("senden: {}", ereignis);
+        sink.emitNext(ereignis, Sinks.EmitFailureHandler.busyLooping(EMIT_TIMEOUT));
+    }
+}
@@ -1,18 +1,42 @@
 package com.acme.zulieferer.service;
 
+import com.acme.zulieferer.entity.Lieferung;
 import com.acme.zulieferer.entity.Zulieferer;
+import com.acme.zulieferer.repository.AehnlichkeitsSuche;
+import com.acme.zulieferer.repository.KeysetSuche;
+import com.acme.zulieferer.repository.ReplicaRoutingDataSource;
 import com.acme.zulieferer.repository.SpecificationBuilder;
+import com.acme.zulieferer.repository.ZuliefererLieferung;
+import com.acme.zulieferer.repository.ZuliefererProjektion;
 import com.acme.zulieferer.repository.ZuliefererRepository;
+import com.acme.zulieferer.repository.ZuliefererVersion;
+import jakarta.persistence.EntityManager;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.function.BiConsumer;
+
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
+import static jakarta.persistence.CacheRetrieveMode.BYPASS;
+import static jakarta.persistence.CacheStoreMode.REFRESH;
+import static org.hibernate.jpa.SpecHints.HINT_SPEC_CACHE_RETRIEVE_MODE;
+import static org.hibernate.jpa.SpecHints.HINT_SPEC_CACHE_STORE_MODE;
+import static org.springframework.transaction.annotation.Propagation.SUPPORTS;
 
 /**
  * Anwendungslogik für Zulieferer.
@@ -22,57 +46,115 @@ import java.util.UUID;
 @RequiredArgsConstructor
 @Slf4j
 public class ZuliefererReadService {
+    /**
+     * Seitengröße, falls keine oder eine ungültige Größe angegeben ist.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    /**
+     * Maximale Seitengröße.
+     */
+    public static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * Anzahl der Namen bei der Autovervollständigung, falls keine oder eine ungültige Anzahl angegeben ist.
+     */
+    public static final int DEFAULT_NAMEN_SIZE = 10;
+
+    /**
+     * Anzahl der Zulieferer, nach der beim Export der Persistenzkontext geleert wird.
+     */
+    private static final int EXPORT_CHUNK_SIZE = 500;
+
     /**
      * Deklaration Repository.
      */
     private final ZuliefererRepository repo;
     private final SpecificationBuilder specificationBuilder;
+    private final AehnlichkeitsSuche aehnlichkeitsSuche;
+    private final KeysetSuche keysetSuche;
+    private final EntityManager entityManager;
+    private final NamenIndex namenIndex;
 
-    /** Zulieferer anhand von Query Parametern als Collection suchen.
+    /**
+     * Zulieferer anhand von Query Parametern seitenweise suchen. Die Seiten werden per Keyset-Pagination über die
+     * ID gebildet, so dass nie mehr als `size` + 1 Datensätze gelesen werden. Gelesen werden nur die Spalten der
+     * {@link ZuliefererProjektion}, d.h. es werden keine Entities in den Persistenzkontext geladen.
      *
      * @param queryParams Die Query Parameter
-     * @return Die gefundenen Zulieferer oder eine leere Liste
+     * @param position Die Position, ab bzw. bis zu der gelesen wird
+     * @param size Die gewünschte Seitengröße
+     * @return Die gefundenen Zulieferer als Ausschnitt
      * @throws NotFoundException Falls keine Zulieferer gefunden wurden
      */
     @Transactional(readOnly = true)
-    public @NonNull Collection<Zulieferer> find(@NonNull final Map<String, List<String>> queryParams) {
-        log.debug("find: queryParams={}", queryParams);
+    public @NonNull Window<ZuliefererProjektion> find(
+        @NonNull final Map<String, List<String>> queryParams,
+        @NonNull final KeysetScrollPosition position,
+        final int size
+    ) {
+        log.debug("find: queryParams={}, position={}, size={}", queryParams, position, size);
+        final var limit = size < 1 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
 
-        if (queryParams.isEmpty()) {
-            return repo.findAll();
+        final var spec = queryParams.isEmpty()
+            ? null
+            : specificationBuilder.build(queryParams).orElseThrow(() -> new NotFoundException(queryParams));
+        final var dieZulieferer = keysetSuche.find(spec, position, limit);
+
+        if (dieZulieferer.isEmpty()) {
+            throw new NotFoundException(queryParams);
         }
+        log.debug("find: {}", dieZulieferer.getContent());
+        return dieZulieferer;
+    }
 
-        if (queryParams.size() == 1) {
-            final var names = queryParams.get("name");
-            if (names != null && names.size() == 1) {
-                final var dieZulieferer = repo.findByName(names.getFirst());
-                if (dieZulieferer.isEmpty()) {
-                    throw new NotFoundException(queryParams);
-                }
-                log.debug("find (name): {}", dieZulieferer);
-                return dieZulieferer;
-            }
-            final var emails = queryParams.get("email");
-            if (emails != null && emails.size() == 1) {
-                final var zulieferer = repo.findByEmail(emails.getFirst());
-                if (zulieferer.isEmpty()) {
-                    throw new NotFoundException(queryParams);
-                }
-                final var dieZulieferer = List.of(zulieferer.get());
-                log.debug("find (email): {}", dieZulieferer);
-                return dieZulieferer;
-            }
+    /**
+     * Namen zu einem Präfix für die Autovervollständigung suchen. Die Namen werden aus einem Index im Hauptspeicher
+     * gelesen, deshalb wird keine Transaktion und keine DB-Verbindung benötigt.
+     *
+     * @param prefix Präfix des Namens
+     * @param size Die maximale Anzahl an Namen
+     * @return Die passenden Namen sortiert
+     * @throws NotFoundException Falls es keine passenden Namen gibt
+     */
+    @Transactional(propagation = SUPPORTS)
+    public @NonNull List<String> findNamenByPrefix(@NonNull final String prefix, final int size) {
+        log.debug("findNamenByPrefix: prefix={}, size={}", prefix, size);
+        final var limit = size < 1 ? DEFAULT_NAMEN_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        final var namen = namenIndex.findByPrefix(prefix, limit);
+        if (namen.isEmpty()) {
+            throw new NotFoundException(Map.of("prefix", List.of(prefix)));
         }
+        log.debug("findNamenByPrefix: {}", namen);
+        return namen;
+    }
 
-        final var spec = specificationBuilder
-            .build(queryParams)
-            .orElseThrow(() -> new NotFoundException(queryParams));
-        final var zulieferers = repo.findAll(spec);
-        if (zulieferers.isEmpty()) {
-            throw new NotFoundException(queryParams);
+    /**
+     * Unscharfe Suche nach Zulieferern, deren Name oder Emailadresse einem Suchbegriff ähnlich ist. Die Treffer sind
+     * absteigend nach Relevanz sortiert.
+     *
+     * @param teil Der Suchbegriff
+     * @param size Die maximale Anzahl an Treffern
+     * @return Die gefundenen Zulieferer
+     * @throws NotFoundException Falls keine Zulieferer gefunden wurden
+     */
+    public @NonNull List<ZuliefererProjektion> search(@NonNull final String teil, final int size) {
+        log.debug("search: teil={}, size={}", teil, size);
+        final var limit = size < 1 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        final var ids = aehnlichkeitsSuche.findIds(teil, limit);
+        if (ids.isEmpty()) {
+            throw new NotFoundException(Map.of("q", List.of(teil)));
         }
-        log.debug("find: {}", zulieferers);
-        return zulieferers;
+
+        final var zuliefererMap = repo.findByIdIn(ids)
+            .stream()
+            .collect(toMap(ZuliefererProjektion::id, identity()));
+        final var dieZulieferer = ids.stream()
+            .map(zuliefererMap::get)
+            .filter(Objects::nonNull)
+            .toList();
+        log.debug("search: {}", dieZulieferer);
+        return dieZulieferer;
     }
 
     /**
@@ -89,4 +171,111 @@ public class ZuliefererReadService {
         log.debug("findById: {}", zulieferer);
         return zulieferer;
     }
+
+    /**
+     * Einen Zulieferer in einer bestimmten Version suchen, z.B. nachdem die aktuelle Version mit
+     * {@link #findVersion(UUID)} ermittelt wurde. Es wird von der primären Datenbank gelesen. Ist die Entity im
+     * 2nd-Level-Cache älter, weil eine andere Instanz sie geändert hat, wird sie ohne den Cache neu geladen und der
+     * Cache-Eintrag ersetzt.
+     *
+     * @param id Die Id des gesuchten Zulieferers
+     * @param version Die erwartete Versionsnummer
+     * @return Der gefundene Zulieferer, ggf. in einer neueren Version
+     * @throws NotFoundException Falls kein Zulieferer gefunden wurde
+     */
+    public Zulieferer findById(final UUID id, final int version) {
+        log.debug("findById: id={}, version={}", id, version);
+        return ReplicaRoutingDataSource.primary(() -> {
+            final var zulieferer = findById(id);
+            if (zulieferer.getVersion() >= version) {
+                return zulieferer;
+            }
+            log.debug("findById: veraltet im Cache, version={}", zulieferer.getVersion());
+            entityManager.detach(zulieferer);
+            final Map<String, Object> hints = Map.of(
+                HINT_SPEC_CACHE_RETRIEVE_MODE, BYPASS,
+                HINT_SPEC_CACHE_STORE_MODE, REFRESH
+            );
+            final var aktuell = entityManager.find(Zulieferer.class, id, hints);
+            if (aktuell == null) {
+                throw new NotFoundException(id);
+            }
+            return aktuell;
+        });
+    }
+
+    /**
+     * Nur Versionsnummer und Änderungszeitpunkt eines Zulieferers suchen, z.B. für bedingte GET-Requests. Es wird
+     * ohne Query-Cache von der primären Datenbank gelesen, damit nach einer Änderung durch eine andere Instanz oder
+     * bei Verzögerung durch die Replikation keine veraltete Version geliefert wird.
+     *
+     * @param id Die Id des Zulieferers
+     * @return Versionsnummer und Änderungszeitpunkt
+     * @throws NotFoundException Falls kein Zulieferer gefunden wurde
+     */
+    public @NonNull ZuliefererVersion findVersion(final UUID id) {
+        log.debug("findVersion: id={}", id);
+        final var version = ReplicaRoutingDataSource.primary(() -> repo.findVersionById(id))
+            .orElseThrow(() -> new NotFoundException(id));
+        log.debug("findVersion: {}", version);
+        return version;
+    }
+
+    /**
+     * Die Lieferungen zu mehreren Zulieferern mit einer einzigen Abfrage suchen.
+     *
+     * @param ids Die IDs der Zulieferer
+     * @return Die Lieferungen gruppiert nach der ID ihres Zulieferers
+     */
+    public @NonNull Map<UUID, List<Lieferung>> findLieferungen(@NonNull final Collection<UUID> ids) {
+        log.debug("findLieferungen: ids={}", ids);
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        final var lieferungen = repo.findLieferungenByZuliefererIds(ids)
+            .stream()
+            .collect(groupingBy(
+                ZuliefererLieferung::zuliefererId,
+                mapping(ZuliefererLieferung::lieferung, toList())
+            ));
+        log.trace("findLieferungen: {}", lieferungen);
+        return lieferungen;
+    }
+
+    /**
+     * Alle Zulieferer mit Geschaeftsfuehrer und Lieferungen exportieren. Die Zulieferer werden über einen Stream mit
+     * Fetch Size gelesen und in Blöcken verarbeitet: pro Block werden die Lieferungen mit einer einzigen Abfrage
+     * nachgeladen und danach wird der Persistenzkontext geleert, d.h. der Heap-Bedarf ist unabhängig von der Anzahl
+     * der Zulieferer.
+     *
+     * @param consumer Verarbeitung eines Zulieferers mit seinen Lieferungen
+     */
+    public void export(@NonNull final BiConsumer<Zulieferer, List<Lieferung>> consumer) {
+        log.debug("export");
+        final List<Zulieferer> block = new ArrayList<>(EXPORT_CHUNK_SIZE);
+        var anzahl = 0;
+        try (var dieZulieferer = repo.streamAll()) {
+            final var iterator = dieZulieferer.iterator();
+            while (iterator.hasNext()) {
+                block.add(iterator.next());
+                if (block.size() == EXPORT_CHUNK_SIZE || !iterator.hasNext()) {
+                    exportBlock(block, consumer);
+                    anzahl += block.size();
+                    block.clear();
+                }
+            }
+        }
+        log.debug("export: anzahl={}", anzahl);
+    }
+
+    private void exportBlock(final List<Zulieferer> block, final BiConsumer<Zulieferer, List<Lieferung>> consumer) {
+        final var ids = block.stream().map(Zulieferer::getId).toList();
+        final var lieferungen = findLieferungen(ids);
+        block.forEach(zulieferer -> consumer.accept(
+            zulieferer,
+            lieferungen.getOrDefault(zulieferer.getId(), List.of())
+        ));
+        // Persistenzkontext leeren: der Cursor bleibt offen, die exportierten Entities werden freigegeben
+        entityManager.clear();
+    }
 }
@@ -0,0 +1,216 @@
+package com.acme.zulieferer.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache für die serialisierten Antworten zu einzelnen Zulieferern, z.B. HAL-JSON für `GET /rest/{id}`. Schlüssel ist
+ * die ID mit der Versionsnummer und einer Variante, z.B. der Basis-URI für die Links. Eine neue Version ergibt einen
+ * neuen Schlüssel, d.h. eine veraltete Antwort wird nie geliefert; {@link ZuliefererWriteService} entfernt die
+ * Einträge eines geänderten oder gelöschten Zulieferers nach dem Commit, damit sie keinen Platz belegen.
+ * <p>
+ * Die Größe ist durch `app.response-cache.max-size` in Bytes beschränkt; bei Bedarf werden die am längsten nicht
+ * gelesenen Einträge verdrängt. Mit `app.response-cache.gzip = true` wird zusätzlich die mit gzip komprimierte
+ * Antwort gespeichert. Treffer und Fehlschläge zählt die Metrik `zulieferer.response.cache`.
+ */
+@Service
+@Slf4j
+public class ZuliefererResponseCache {
+    private static final String METRIC_NAME = "zulieferer.response.cache";
+    private static final String ERGEBNIS = "ergebnis";
+
+    // LinkedHashMap in Zugriffsreihenfolge: der erste Eintrag wurde am laengsten nicht gelesen
+    private final LinkedHashMap<Schluessel, Antwort> eintraege = new LinkedHashMap<>(256, 0.75f, true);
+
+    // kein synchronized, damit virtuelle Threads ihren Carrier-Thread nicht blockieren
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final boolean enabled;
+
+    private final long maxSize;
+
+    private final boolean gzip;
+
+    private final int gzipMinSize;
+
+    private final Counter treffer;
+
+    private final Counter fehlschlaege;
+
+    private long size;
+
+    private record Schluessel(UUID id, int version, String variante) {
+    }
+
+    /**
+     * Eine serialisierte Antwort.
+     *
+     * @param body Der serialisierte Body
+     * @param gzip Der mit gzip komprimierte Body oder null
+     * @param version Versionsnummer des Zulieferers
+     * @param aktualisiert Zeitpunkt der letzten Änderung des Zulieferers
+     */
+    public record Antwort(byte[] body, byte[] gzip, int version, LocalDateTime aktualisiert) {
+        private long size() {
+            return body.length + (gzip == null ? 0 : gzip.length);
+        }
+    }
+
+    ZuliefererResponseCache(
+        final MeterRegistry meterRegistry,
+        @Value("${app.response-cache.enabled:true}") final boolean enabled,
+        @Value("${app.response-cache.max-size:32MB}") final DataSize maxSize,
+        @Value("${app.response-cache.gzip:true}") final boolean gzip,
+        @Value("${app.response-cache.gzip-min-size:1KB}") final DataSize gzipMinSize
+    ) {
+        this.enabled = enabled;
+        this.maxSize = maxSize.toBytes();
+        this.gzip = gzip;
+        this.gzipMinSize = (int) gzipMinSize.toBytes();
+        treffer = meterRegistry.counter(METRIC_NAME, ERGEBNIS, "treffer");
+        fehlschlaege = meterRegistry.counter(METRIC_NAME, ERGEBNIS, "fehlschlag");
+        Gauge.builder("zulieferer.response.cache.size", this, ZuliefererResponseCache::getSize)
+            .description("Belegte Bytes im Cache für serialisierte Antworten")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        log.info("ZuliefererResponseCache: enabled={}, maxSize={}, gzip={}", enabled, maxSize, gzip);
+    }
+
+    /**
+     * Eine gespeicherte Antwort suchen.
+     *
+     * @param id ID des Zulieferers
+     * @param version Aktuelle Versionsnummer des Zulieferers
+     * @param variante Variante der Antwort, z.B. die Basis-URI für die Links
+     * @return Die gespeicherte Antwort oder ein leeres Optional
+     */
+    public Optional<Antwort> get(final UUID id, final int version, final String variante) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        final Antwort antwort;
+        lock.lock();
+        try {
+            antwort = eintraege.get(new Schluessel(id, version, variante));
+        } finally {
+            lock.unlock();
+        }
+        (antwort == null ? fehlschlaege : treffer).increment();
+        return Optional.ofNullable(antwort);
+    }
+
+    /**
+     * Eine serialisierte Antwort speichern und ggf. zusätzlich komprimiert speichern.
+     *
+     * @param id ID des Zulieferers
+     * @param version Versionsnummer des serialisierten Zulieferers
+     * @param aktualisiert Zeitpunkt der letzten Änderung des serialisierten Zulieferers
+     * @param variante Variante der Antwort, z.B. die Basis-URI für die Links
+     * @param body Der serialisierte Body
+     * @return Die gespeicherte Antwort
+     */
+    public Antwort put(
+        final UUID id,
+        final int version,
+        final LocalDateTime aktualisiert,
+        final String variante,
+        final byte[] body
+    ) {
+        final var komprimiert = gzip && body.length >= gzipMinSize ? gzip(body) : null;
+        final var antwort = new Antwort(body, komprimiert, version, aktualisiert);
+        if (!enabled || antwort.size() > maxSize) {
+            return antwort;
+        }
+        lock.lock();
+        try {
+            final var alt = eintraege.put(new Schluessel(id, version, variante), antwort);
+            size += antwort.size() - (alt == null ? 0 : alt.size());
+            final var iterator = eintraege.values().iterator();
+            while (size > maxSize && iterator.hasNext()) {
+                size -= iterator.next().size();
+                iterator.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return antwort;
+    }
+
+    /**
+     * Belegte Bytes im Cache.
+     *
+     * @return Anzahl Bytes
+     */
+    public long getSize() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Die Einträge zu einem Zulieferer nach dem Commit der aktuellen Transaktion entfernen.
+     *
+     * @param id ID des geänderten oder gelöschten Zulieferers
+     */
+    void entfernen(final UUID id) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            entfernenSofort(id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                entfernenSofort(id);
+            }
+        });
+    }
+
+    private void entfernenSofort(final UUID id) {
+        lock.lock();
+        try {
+            final var iterator = eintraege.entrySet().iterator();
+            while (iterator.hasNext()) {
+                final var eintrag = iterator.next();
+                if (eintrag.getKey().id().equals(id)) {
+                    size -= eintrag.getValue().size();
+                    iterator.remove();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        log.trace("entfernenSofort: id={}", id);
+    }
+
+    private static byte[] gzip(final byte[] body) {
+        final var ausgabe = new ByteArrayOutputStream(body.length / 4);
+        try (var gzipStream = new GZIPOutputStream(ausgabe)) {
+            gzipStream.write(body);
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return ausgabe.toByteArray();
+    }
+}
@@ -1,26 +1,101 @@
 package com.acme.zulieferer.service;
 
 import com.acme.zulieferer.entity.Zulieferer;
+import com.acme.zulieferer.entity.ZuliefererAenderung;
+import com.acme.zulieferer.repository.ZuliefererAenderungRepository;
 import com.acme.zulieferer.repository.ZuliefererRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import jakarta.validation.Validator;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import static com.acme.zulieferer.entity.ZuliefererAenderung.Art.CREATE;
+import static com.acme.zulieferer.entity.ZuliefererAenderung.Art.DELETE;
+import static com.acme.zulieferer.entity.ZuliefererAenderung.Art.UPDATE;
+import static org.springframework.transaction.annotation.Propagation.NOT_SUPPORTED;
 
 @Service
 @Transactional(readOnly = true)
-@RequiredArgsConstructor
 @Slf4j
 public class ZuliefererWriteService {
+    /**
+     * Anzahl der Zulieferer, die beim Neuanlegen mehrerer Zulieferer in einer Transaktion gespeichert werden.
+     */
+    private static final int FLUSH_SIZE = 500;
+
+    /**
+     * Maximale Anzahl an Werten in einer IN-Klausel.
+     */
+    private static final int IN_SIZE = 1000;
+
+    /**
+     * Name des Unique Index für die Emailadresse in PostgreSQL.
+     */
+    private static final String EMAIL_INDEX = "zulieferer_email_key";
+
+    /**
+     * Tabelle und Spalte in der Fehlermeldung von H2 bei einer doppelten Emailadresse.
+     */
+    private static final String EMAIL_SPALTE_H2 = "zulieferer(email";
+
+    /**
+     * Fehlermeldung für die Zulieferer eines Blocks, dessen Transaktion zurückgerollt wurde.
+     */
+    private static final String BLOCK_FEHLER =
+        "Nicht gespeichert: im selben Block wurde eine Eindeutigkeit verletzt, z.B. durch eine gleichzeitig " +
+            "angelegte Emailadresse";
+
     private final ZuliefererRepository repo;
 
+    private final TransactionTemplate transactionTemplate;
+
     private final Validator validator;
 
+    private final EmailFilter emailFilter;
+
+    private final ZuliefererAenderungRepository aenderungRepo;
+
+    private final AenderungRelay relay;
+
+    private final ZuliefererResponseCache responseCache;
+
+    private final int maxBatchSize;
+
+    ZuliefererWriteService(
+        final ZuliefererRepository repo,
+        final PlatformTransactionManager transactionManager,
+        final Validator validator,
+        final EmailFilter emailFilter,
+        final ZuliefererAenderungRepository aenderungRepo,
+        final AenderungRelay relay,
+        final ZuliefererResponseCache responseCache,
+        @Value("${app.batch.max-size:1000}") final int maxBatchSize
+    ) {
+        this.repo = repo;
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.emailFilter = emailFilter;
+        this.aenderungRepo = aenderungRepo;
+        this.relay = relay;
+        this.responseCache = responseCache;
+        this.maxBatchSize = maxBatchSize;
+    }
+
     /**
-     * Einen neuen Zulieferer anlegen.
+     * Einen neuen Zulieferer anlegen. Die Eindeutigkeit der Emailadresse garantiert der Unique Index in der DB, d.h.
+     * es gibt keine vorherige Abfrage, ob die Emailadresse bereits existiert. Nur wenn der Bloom-Filter die
+     * Emailadresse nicht ausschließen kann, wird vorab in der DB nachgesehen.
      *
      * @param zulieferer Das Objekt des neu anzulegenden Zulieferers.
      * @return Der neu angelegte Zulieferer mit generierter ID
@@ -37,15 +112,147 @@ public class ZuliefererWriteService {
             throw new ConstraintViolationsException(violations);
         }
 
-        if (repo.existsByEmail(zulieferer.getEmail())) {
-            throw new EmailExistsException(zulieferer.getEmail());
+        final var email = zulieferer.getEmail();
+        if (emailFilter.mightContain(email) && repo.existsByEmail(email)) {
+            throw new EmailExistsException(email);
         }
 
-        final var zuliefererDB = repo.save(zulieferer);
+        final Zulieferer zuliefererDB;
+        try {
+            zuliefererDB = repo.saveAndFlush(zulieferer);
+        } catch (final DataIntegrityViolationException ex) {
+            throw translate(ex, email);
+        }
+        aenderung(CREATE, zuliefererDB);
+        relay.anstossen();
+        emailFilter.put(email);
         log.debug("create: {}", zuliefererDB);
         return zuliefererDB;
     }
 
+    /**
+     * Mehrere neue Zulieferer anlegen. Alle Zulieferer werden zuerst validiert, die Emailadressen der Zulieferer und
+     * ihrer Geschäftsführer werden mit wenigen mengenbasierten Abfragen geprüft und die gültigen Zulieferer werden
+     * dann mit JDBC-Batching (`hibernate.jdbc.batch_size`) in Blöcken gespeichert. Jeder Block hat eine eigene
+     * Transaktion: scheitert ein Block trotz der Prüfungen, z.B. durch eine gleichzeitig angelegte Emailadresse,
+     * erhalten nur seine Zulieferer einen Fehler und die übrigen Blöcke bleiben gespeichert.
+     *
+     * @param dieZulieferer Die neu anzulegenden Zulieferer
+     * @return Das Ergebnis für jeden Zulieferer in der Reihenfolge der Eingabe
+     * @throws BatchTooLargeException Falls es mehr Zulieferer als `app.batch.max-size` sind.
+     */
+    @Transactional(propagation = NOT_SUPPORTED)
+    public List<AnlegeErgebnis> createAll(final List<Zulieferer> dieZulieferer) {
+        log.debug("createAll: anzahl={}", dieZulieferer.size());
+        if (dieZulieferer.size() > maxBatchSize) {
+            throw new BatchTooLargeException(dieZulieferer.size(), maxBatchSize);
+        }
+        final var ergebnisse = new AnlegeErgebnis[dieZulieferer.size()];
+        final var vorhandeneEmails = findVorhandeneEmails(dieZulieferer);
+        final var vorhandeneEmailsGf = findVorhandeneGeschaeftsfuehrerEmails(dieZulieferer);
+        final Set<String> neueEmails = new HashSet<>(dieZulieferer.size());
+        final Set<String> neueEmailsGf = new HashSet<>(dieZulieferer.size());
+        final var neueIndizes = new ArrayList<Integer>(dieZulieferer.size());
+
+        for (int i = 0; i < dieZulieferer.size(); i++) {
+            final var zulieferer = dieZulieferer.get(i);
+            final var violations = validator.validate(zulieferer);
+            if (!violations.isEmpty()) {
+                final var fehler = violations.stream()
+                    .map(violation -> STR."\{violation.getPropertyPath()}: \{violation.getMessage()}")
+                    .toList();
+                ergebnisse[i] = AnlegeErgebnis.fehlerhaft(i, fehler);
+                continue;
+            }
+            final var email = zulieferer.getEmail();
+            if (vorhandeneEmails.contains(email) || neueEmails.contains(email)) {
+                ergebnisse[i] = AnlegeErgebnis.fehlerhaft(i, List.of(new EmailExistsException(email).getMessage()));
+                continue;
+            }
+            final var emailGf = geschaeftsfuehrerEmail(zulieferer);
+            if (emailGf != null && (vorhandeneEmailsGf.contains(emailGf) || neueEmailsGf.contains(emailGf))) {
+                final var fehler = STR."geschaeftsfuehrer.email: \{new EmailExistsException(emailGf).getMessage()}";
+                ergebnisse[i] = AnlegeErgebnis.fehlerhaft(i, List.of(fehler));
+                continue;
+            }
+            neueEmails.add(email);
+            if (emailGf != null) {
+                neueEmailsGf.add(emailGf);
+            }
+            neueIndizes.add(i);
+        }
+        log.debug("createAll: gueltig={}", neueIndizes.size());
+
+        for (int von = 0; von < neueIndizes.size(); von += FLUSH_SIZE) {
+            final var indizes = neueIndizes.subList(von, Math.min(von + FLUSH_SIZE, neueIndizes.size()));
+            final var block = indizes.stream().map(dieZulieferer::get).toList();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    repo.saveAll(block);
+                    block.forEach(zulieferer -> aenderung(CREATE, zulieferer));
+                    repo.flush();
+                    relay.anstossen();
+                });
+            } catch (final DataIntegrityViolationException ex) {
+                log.warn("createAll: Block mit {} Zulieferern zurueckgerollt: {}", block.size(), ex.getMessage());
+                indizes.forEach(i -> ergebnisse[i] = AnlegeErgebnis.fehlerhaft(i, List.of(BLOCK_FEHLER)));
+                continue;
+            }
+            indizes.forEach(i -> {
+                final var zulieferer = dieZulieferer.get(i);
+                emailFilter.put(zulieferer.getEmail());
+                ergebnisse[i] = AnlegeErgebnis.angelegt(i, zulieferer.getId());
+            });
+        }
+        return List.of(ergebnisse);
+    }
+
+    /**
+     * Maximale Anzahl an Zulieferern für {@link #createAll(List)}.
+     *
+     * @return Maximale Anzahl
+     */
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    // ohne Bloom-Filter: er ist je Instanz und kennt die Emailadressen nicht, die andere Instanzen angelegt haben. Ein
+    // falsch-negativer Treffer wuerde sonst erst beim Speichern auffallen und den ganzen Block zurueckrollen
+    private Set<String> findVorhandeneEmails(final Collection<Zulieferer> dieZulieferer) {
+        final var emails = dieZulieferer.stream()
+            .map(Zulieferer::getEmail)
+            .filter(Objects::nonNull)
+            .distinct()
+            .toList();
+        final Set<String> vorhandeneEmails = new HashSet<>();
+        for (int von = 0; von < emails.size(); von += IN_SIZE) {
+            final var block = emails.subList(von, Math.min(von + IN_SIZE, emails.size()));
+            vorhandeneEmails.addAll(repo.findEmailsByEmailIn(block));
+        }
+        log.trace("findVorhandeneEmails: {}", vorhandeneEmails);
+        return vorhandeneEmails;
+    }
+
+    private Set<String> findVorhandeneGeschaeftsfuehrerEmails(final Collection<Zulieferer> dieZulieferer) {
+        final var emails = dieZulieferer.stream()
+            .map(ZuliefererWriteService::geschaeftsfuehrerEmail)
+            .filter(Objects::nonNull)
+            .distinct()
+            .toList();
+        final Set<String> vorhandeneEmails = new HashSet<>();
+        for (int von = 0; von < emails.size(); von += IN_SIZE) {
+            final var block = emails.subList(von, Math.min(von + IN_SIZE, emails.size()));
+            vorhandeneEmails.addAll(repo.findGeschaeftsfuehrerEmailsByEmailIn(block));
+        }
+        log.trace("findVorhandeneGeschaeftsfuehrerEmails: {}", vorhandeneEmails);
+        return vorhandeneEmails;
+    }
+
+    private static String geschaeftsfuehrerEmail(final Zulieferer zulieferer) {
+        final var geschaeftsfuehrer = zulieferer.getGeschaeftsfuehrer();
+        return geschaeftsfuehrer == null ? null : geschaeftsfuehrer.getEmail();
+    }
+
     /**
      * Einen vorhandenen Zulieferer aktualisieren.
      *
@@ -78,16 +285,40 @@ public class ZuliefererWriteService {
         }
 
         final var email = zulieferer.getEmail();
-        if (!Objects.equals(email, zuliefererDb.getEmail()) && repo.existsByEmail(email)) {
+        final var emailGeaendert = !Objects.equals(email, zuliefererDb.getEmail());
+        if (emailGeaendert && emailFilter.mightContain(email) && repo.existsByEmail(email)) {
             log.debug("update: email {} existiert", email);
             throw new EmailExistsException(email);
         }
 
         zuliefererDb.set(zulieferer);
-        repo.save(zuliefererDb);
+        try {
+            zuliefererDb = repo.saveAndFlush(zuliefererDb);
+        } catch (final DataIntegrityViolationException ex) {
+            throw translate(ex, email);
+        }
+        aenderung(UPDATE, zuliefererDb);
+        relay.anstossen();
+        responseCache.entfernen(id);
+        if (emailGeaendert) {
+            emailFilter.put(email);
+        }
         return zuliefererDb;
     }
 
+    // Verletzung des Unique Index fuer die Emailadresse in eine EmailExistsException uebersetzen
+    private static RuntimeException translate(final DataIntegrityViolationException ex, final String email) {
+        final var message = ex.getMostSpecificCause().getMessage();
+        if (message != null) {
+            final var messageLower = message.toLowerCase(Locale.ROOT);
+            if (messageLower.contains(EMAIL_INDEX) || messageLower.contains(EMAIL_SPALTE_H2)) {
+                log.debug("translate: email {} existiert", email);
+                return new EmailExistsException(email);
+            }
+        }
+        return ex;
+    }
+
     @Transactional
     public void deleteById(final UUID id) {
         log.debug("deleteById: id={}", id);
@@ -96,6 +327,21 @@ public class ZuliefererWriteService {
             log.debug("deleteById: id={} nicht vorhanden", id);
             return;
         }
-        repo.delete(zuliefererOptional.get());
+        final var zulieferer = zuliefererOptional.get();
+        repo.delete(zulieferer);
+        aenderung(DELETE, zulieferer);
+        relay.anstossen();
+        responseCache.entfernen(id);
+    }
+
+    // Die Aenderung in derselben Transaktion in die Outbox schreiben
+    private void aenderung(final ZuliefererAenderung.Art art, final Zulieferer zulieferer) {
+        aenderungRepo.save(ZuliefererAenderung.builder()
+            .zuliefererId(zulieferer.getId())
+            .art(art)
+            .version(zulieferer.getVersion())
+            .name(zulieferer.getName())
+            .email(zulieferer.getEmail())
+            .build());
     }
 }
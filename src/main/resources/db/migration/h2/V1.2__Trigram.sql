@@ -0,0 +1,3 @@
+-- H2 unterstuetzt weder pg_trgm noch Indexe ueber Ausdruecke wie lower(name):
+-- die Suche verwendet LIKE und kann statt der Tabelle diesen ueberdeckenden Index durchsuchen
+CREATE INDEX IF NOT EXISTS zulieferer_name_email_idx ON zulieferer(name, email);
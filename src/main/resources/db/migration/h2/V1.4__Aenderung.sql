@@ -0,0 +1,11 @@
+-- Transactional Outbox wie bei PostgreSQL, aber ohne partiellen Index
+CREATE SEQUENCE IF NOT EXISTS zulieferer_aenderung_id_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS zulieferer_aenderung (
+    id              bigint PRIMARY KEY,
+    zulieferer_id   uuid NOT NULL,
+    art             varchar(6) NOT NULL CHECK (art IN ('CREATE', 'UPDATE', 'DELETE')),
+    version         integer NOT NULL,
+    erzeugt         timestamp NOT NULL,
+    nummer          bigint UNIQUE
+);
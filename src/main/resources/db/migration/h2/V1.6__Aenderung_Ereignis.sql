@@ -0,0 +1,3 @@
+-- Name und Emailadresse in der Outbox wie bei PostgreSQL
+ALTER TABLE zulieferer_aenderung ADD COLUMN IF NOT EXISTS name varchar(40);
+ALTER TABLE zulieferer_aenderung ADD COLUMN IF NOT EXISTS email varchar(40);
@@ -0,0 +1,8 @@
+-- https://www.postgresql.org/docs/current/pgtrgm.html
+-- pg_trgm ist seit PostgreSQL 13 eine "trusted extension", d.h. der Owner der DB darf sie anlegen
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- GIN-Indexe fuer Teilstring-Suche (LIKE '%teil%') und Aehnlichkeitssuche (Operator %)
+-- Die Ausdruecke muessen exakt den Ausdruecken in den Queries entsprechen: lower(...)
+CREATE INDEX IF NOT EXISTS zulieferer_name_trgm_idx ON zulieferer USING gin (lower(name) gin_trgm_ops) TABLESPACE zuliefererspace;
+CREATE INDEX IF NOT EXISTS zulieferer_email_trgm_idx ON zulieferer USING gin (lower(email) gin_trgm_ops) TABLESPACE zuliefererspace;
@@ -0,0 +1,3 @@
+-- Eindeutige Emailadressen werden von der DB garantiert: ZuliefererWriteService verlaesst sich darauf
+-- und uebersetzt die Verletzung in eine EmailExistsException (der Name des Index wird dort ausgewertet)
+CREATE UNIQUE INDEX IF NOT EXISTS zulieferer_email_key ON zulieferer(email) TABLESPACE zuliefererspace;
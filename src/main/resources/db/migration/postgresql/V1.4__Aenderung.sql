@@ -0,0 +1,15 @@
+-- Transactional Outbox: ZuliefererWriteService schreibt je Aenderung eine Zeile in derselben Transaktion.
+-- Die laufende Nummer fuer den Aenderungs-Feed vergibt erst das Relay, d.h. in der Reihenfolge der Commits.
+CREATE SEQUENCE IF NOT EXISTS zulieferer_aenderung_id_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS zulieferer_aenderung (
+                                                    id              bigint PRIMARY KEY USING INDEX TABLESPACE zuliefererspace,
+                                                    zulieferer_id   uuid NOT NULL,
+                                                    art             varchar(6) NOT NULL CHECK (art IN ('CREATE', 'UPDATE', 'DELETE')),
+                                                    version         integer NOT NULL,
+                                                    erzeugt         timestamp NOT NULL,
+                                                    nummer          bigint UNIQUE
+) TABLESPACE zuliefererspace;
+
+-- Das Relay liest nur die noch nicht veroeffentlichten Zeilen
+CREATE INDEX IF NOT EXISTS zulieferer_aenderung_offen_idx ON zulieferer_aenderung(id) TABLESPACE zuliefererspace WHERE nummer IS NULL;
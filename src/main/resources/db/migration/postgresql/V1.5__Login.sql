@@ -0,0 +1,17 @@
+-- Benutzer fuer HTTP Basic: LoginUserDetailsService liest die Tabelle login wie bei H2
+CREATE TABLE IF NOT EXISTS login (
+                                     id          uuid PRIMARY KEY USING INDEX TABLESPACE zuliefererspace,
+                                     username    varchar(20) NOT NULL UNIQUE,
+                                     password    varchar(180) NOT NULL,
+                                     rollen      varchar(32)
+) TABLESPACE zuliefererspace;
+
+INSERT INTO login (id, username, password, rollen)
+VALUES
+    ('30000000-0000-0000-0000-000000000000','admin','{argon2id}$argon2id$v=19$m=16384,t=3,p=1$QHb5SxDhddjUiGboXTc9S9yCmRoPsBejIvW/dw50DKg$WXZDFJowwMX5xsOun2BT2R3hv2aA9TSpnx3hZ3px59sTW0ObtqBwX7Sem6ACdpycArUHfxmFfv9Z49e7I+TI/g','ADMIN,ZULIEFERER,ACTUATOR'),
+    ('30000000-0000-0000-0000-000000000001','paprikafarm','{argon2id}$argon2id$v=19$m=16384,t=3,p=1$QHb5SxDhddjUiGboXTc9S9yCmRoPsBejIvW/dw50DKg$WXZDFJowwMX5xsOun2BT2R3hv2aA9TSpnx3hZ3px59sTW0ObtqBwX7Sem6ACdpycArUHfxmFfv9Z49e7I+TI/g', 'ZULIEFERER'),
+    ('30000000-0000-0000-0000-000000000020','wurstfabrik','{argon2id}$argon2id$v=19$m=16384,t=3,p=1$QHb5SxDhddjUiGboXTc9S9yCmRoPsBejIvW/dw50DKg$WXZDFJowwMX5xsOun2BT2R3hv2aA9TSpnx3hZ3px59sTW0ObtqBwX7Sem6ACdpycArUHfxmFfv9Z49e7I+TI/g','ZULIEFERER'),
+    ('30000000-0000-0000-0000-000000000030','apfelhof','{argon2id}$argon2id$v=19$m=16384,t=3,p=1$QHb5SxDhddjUiGboXTc9S9yCmRoPsBejIvW/dw50DKg$WXZDFJowwMX5xsOun2BT2R3hv2aA9TSpnx3hZ3px59sTW0ObtqBwX7Sem6ACdpycArUHfxmFfv9Z49e7I+TI/g','ZULIEFERER'),
+    ('30000000-0000-0000-0000-000000000040','kuhhirte','{argon2id}$argon2id$v=19$m=16384,t=3,p=1$QHb5SxDhddjUiGboXTc9S9yCmRoPsBejIvW/dw50DKg$WXZDFJowwMX5xsOun2BT2R3hv2aA9TSpnx3hZ3px59sTW0ObtqBwX7Sem6ACdpycArUHfxmFfv9Z49e7I+TI/g','ZULIEFERER'),
+    ('30000000-0000-0000-0000-000000000050','spargelplantage','{argon2id}$argon2id$v=19$m=16384,t=3,p=1$QHb5SxDhddjUiGboXTc9S9yCmRoPsBejIvW/dw50DKg$WXZDFJowwMX5xsOun2BT2R3hv2aA9TSpnx3hZ3px59sTW0ObtqBwX7Sem6ACdpycArUHfxmFfv9Z49e7I+TI/g','ZULIEFERER'),
+    ('30000000-0000-0000-0000-000000000060','fischerei','{argon2id}$argon2id$v=19$m=16384,t=3,p=1$QHb5SxDhddjUiGboXTc9S9yCmRoPsBejIvW/dw50DKg$WXZDFJowwMX5xsOun2BT2R3hv2aA9TSpnx3hZ3px59sTW0ObtqBwX7Sem6ACdpycArUHfxmFfv9Z49e7I+TI/g','ZULIEFERER');
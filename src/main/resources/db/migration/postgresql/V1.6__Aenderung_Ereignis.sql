@@ -0,0 +1,4 @@
+-- Name und Emailadresse in der Outbox: AenderungRelay erzeugt daraus die Ereignisse fuer alle Instanzen, auch
+-- fuer geloeschte Zulieferer. Aeltere Zeilen haben keine Werte.
+ALTER TABLE zulieferer_aenderung ADD COLUMN IF NOT EXISTS name varchar(40);
+ALTER TABLE zulieferer_aenderung ADD COLUMN IF NOT EXISTS email varchar(40);
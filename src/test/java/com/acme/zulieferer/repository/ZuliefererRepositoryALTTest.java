@@ -0,0 +1,119 @@
+package com.acme.zulieferer.repository;
+
+import com.acme.zulieferer.entity.Zulieferer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import java.util.List;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Tag("unit")
+@DisplayName("Repository fuer Zulieferer im Hauptspeicher")
+class ZuliefererRepositoryALTTest {
+    private ZuliefererRepositoryALT repo;
+
+    @BeforeEach
+    void setUp() {
+        repo = new ZuliefererRepositoryALT();
+    }
+
+    @Test
+    @DisplayName("Anlegen: neuer Zulieferer ist ueber Emailadresse und Name auffindbar")
+    void save() {
+        // given
+        final var zulieferer = neuerZulieferer("Neufabrik", "neu@acme.de");
+
+        // when
+        final var gespeichert = repo.save(zulieferer);
+
+        // then
+        assertThat(gespeichert.getId()).isNotNull();
+        assertThat(repo.findByEmail("NEU@acme.de")).contains(gespeichert);
+        assertThat(repo.findByName("eufab")).containsExactly(gespeichert);
+    }
+
+    @Test
+    @DisplayName("Aendern: gelesenen Zulieferer aendern und speichern aktualisiert die Indexe")
+    void saveUpdate() {
+        // given
+        final var id = repo.save(neuerZulieferer("Altfabrik", "alt@acme.de")).getId();
+        final var zulieferer = repo.findById(id).orElseThrow();
+
+        // when
+        zulieferer.setEmail("geaendert@acme.de");
+        zulieferer.setName("Geaendertfabrik");
+        repo.save(zulieferer);
+
+        // then
+        assertThat(repo.findByEmail("geaendert@acme.de")).contains(zulieferer);
+        assertThat(repo.existsByEmail("alt@acme.de")).isFalse();
+        assertThat(repo.findByName("Geaendert")).containsExactly(zulieferer);
+        assertThat(repo.findByName("Altfabrik")).isEmpty();
+        assertThat(repo.findNamenByPrefix("Alt")).isEmpty();
+
+        // alte Emailadresse ist fuer einen anderen Zulieferer wieder frei
+        final var anderer = repo.save(neuerZulieferer("Anderefabrik", "alt@acme.de"));
+        assertThat(repo.findByEmail("alt@acme.de")).contains(anderer);
+    }
+
+    @Test
+    @DisplayName("Lesen: Aenderungen an einem gelesenen Zulieferer ohne Speichern aendern weder Daten noch Indexe")
+    void findByIdKopie() {
+        // given
+        final var id = repo.save(neuerZulieferer("Kopiefabrik", "kopie@acme.de")).getId();
+
+        // when
+        final var zulieferer = repo.findById(id).orElseThrow();
+        zulieferer.setEmail("ungespeichert@acme.de");
+        zulieferer.setName("Ungespeichertfabrik");
+
+        // then
+        final var gespeichert = repo.findById(id).orElseThrow();
+        assertThat(gespeichert).isNotSameAs(zulieferer);
+        assertThat(gespeichert.getEmail()).isEqualTo("kopie@acme.de");
+        assertThat(gespeichert.getName()).isEqualTo("Kopiefabrik");
+        assertThat(repo.existsByEmail("ungespeichert@acme.de")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Aendern: Emailadresse eines anderen Zulieferers wird abgelehnt")
+    void saveUpdateEmailExists() {
+        // given
+        repo.save(neuerZulieferer("Erstefabrik", "erste@acme.de"));
+        final var zweiter = repo.save(neuerZulieferer("Zweitefabrik", "zweite@acme.de"));
+
+        // when
+        zweiter.setEmail("ERSTE@acme.de");
+
+        // then
+        assertThatThrownBy(() -> repo.save(zweiter)).isInstanceOf(DuplicateKeyException.class);
+        assertThat(repo.findByEmail("zweite@acme.de").map(Zulieferer::getId)).contains(zweiter.getId());
+    }
+
+    @Test
+    @DisplayName("Loeschen entfernt die zuletzt indexierten Schluessel")
+    void deleteById() {
+        // given
+        final var zulieferer = repo.save(neuerZulieferer("Loeschfabrik", "loesch@acme.de"));
+        zulieferer.setEmail("ungespeichert@acme.de");
+
+        // when
+        repo.deleteById(zulieferer.getId());
+
+        // then
+        assertThat(repo.findById(zulieferer.getId())).isEmpty();
+        assertThat(repo.existsByEmail("loesch@acme.de")).isFalse();
+        assertThat(repo.findByName("Loeschfabrik")).isEmpty();
+    }
+
+    private static Zulieferer neuerZulieferer(final String name, final String email) {
+        return Zulieferer.builder()
+            .name(name)
+            .email(email)
+            .lieferungen(List.of())
+            .build();
+    }
+}